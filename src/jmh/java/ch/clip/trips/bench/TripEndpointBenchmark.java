@@ -0,0 +1,128 @@
+package ch.clip.trips.bench;
+
+import ch.clip.trips.BusinessTripsBackendApplication;
+import ch.clip.trips.cache.TripDtoCache;
+import ch.clip.trips.dto.TripImportReport;
+import ch.clip.trips.dto.TripImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end latency of the read endpoints: HTTP, Spring MVC, JPA on the in-memory H2
+ * database and JSON serialization. Each trial boots the application on a random port and
+ * loads the trips through the bulk import endpoint, without the seed trips.
+ * <p>
+ * The detail benchmarks cycle through the imported ids: {@link #tripDetail()} over a few of
+ * them, which stay cached after the first pass, and {@link #uncachedTripDetail()} over all of
+ * them, evicting each from the cache before it is read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TripEndpointBenchmark {
+
+    @Param({"10", "1000"})
+    public int trips;
+
+    @Param({"3"})
+    public int meetingsPerTrip;
+
+    private static final int CACHED_DETAIL_IDS = 8;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient http;
+    private String base;
+    private TripDtoCache tripDtoCache;
+    private long[] ids;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        context = new SpringApplicationBuilder(BusinessTripsBackendApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN", "spring.devtools.restart.enabled=false",
+                        "spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_ON_EXIT=FALSE",
+                        // One client address issues all requests
+                        "trips.rate-limit.enabled=false",
+                        // Only the imported trips, so their ids are known
+                        "trips.seed.mode=off")
+                .run();
+        base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/v1/trips";
+        http = HttpClient.newHttpClient();
+        tripDtoCache = context.getBean(TripDtoCache.class);
+
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        byte[] payload = objectMapper.writeValueAsBytes(TripFixtures.importPayload(trips, meetingsPerTrip));
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(base + ":batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Import failed: " + response.body());
+        }
+        ids = objectMapper.readValue(response.body(), TripImportReport.class).results().stream()
+                .filter(result -> result.status() == TripImportResult.Status.CREATED)
+                .mapToLong(TripImportResult::id)
+                .toArray();
+        if (ids.length != trips) {
+            throw new IllegalStateException("Import failed: " + response.body());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] listTrips() throws Exception {
+        return get(base);
+    }
+
+    @Benchmark
+    public byte[] listTripSummaries() throws Exception {
+        return get(base + "?view=summary");
+    }
+
+    @Benchmark
+    public byte[] firstPage() throws Exception {
+        return get(base + "?limit=50");
+    }
+
+    @Benchmark
+    public byte[] weekRange() throws Exception {
+        return get(base + "?from=2024-06-03&to=2024-06-09&view=summary");
+    }
+
+    @Benchmark
+    public byte[] tripDetail() throws Exception {
+        return get(base + "/" + ids[next++ % Math.min(CACHED_DETAIL_IDS, ids.length)]);
+    }
+
+    @Benchmark
+    public byte[] uncachedTripDetail() throws Exception {
+        long id = ids[next++ % ids.length];
+        tripDtoCache.evict(id);
+        return get(base + "/" + id);
+    }
+
+    private byte[] get(String uri) throws Exception {
+        HttpResponse<byte[]> response = http.send(HttpRequest.newBuilder(URI.create(uri)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(uri + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+}
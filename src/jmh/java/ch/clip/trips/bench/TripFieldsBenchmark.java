@@ -0,0 +1,120 @@
+package ch.clip.trips.bench;
+
+import ch.clip.trips.BusinessTripsBackendApplication;
+import ch.clip.trips.dto.MeetingDto;
+import ch.clip.trips.dto.TripFields;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.repo.MeetingRepository;
+import ch.clip.trips.repo.TripRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full trips against the sparse fieldset {@code id,title,startTrip,endTrip}: the queries alone
+ * ({@code fullQuery}, {@code sparseQuery}) and the list endpoint end to end. The response sizes
+ * of both, uncompressed, are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TripFieldsBenchmark {
+
+    private static final String FIELDS = "title,startTrip,endTrip";
+
+    @Param({"1000", "10000"})
+    public int trips;
+
+    @Param({"3"})
+    public int meetingsPerTrip;
+
+    private ConfigurableApplicationContext context;
+    private BusinessTripRepository businessTripRepository;
+    private MeetingRepository meetingRepository;
+    private TransactionTemplate readOnly;
+    private TripFields fields;
+    private HttpClient http;
+    private String base;
+
+    @Setup(Level.Trial)
+    public void startApplication() throws Exception {
+        context = new SpringApplicationBuilder(BusinessTripsBackendApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN", "spring.devtools.restart.enabled=false",
+                        "spring.datasource.url=jdbc:h2:mem:fields;DB_CLOSE_ON_EXIT=FALSE",
+                        "server.compression.enabled=false", "trips.rate-limit.enabled=false")
+                .run();
+        businessTripRepository = context.getBean(BusinessTripRepository.class);
+        meetingRepository = context.getBean(MeetingRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        fields = TripFields.parse(FIELDS);
+        base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/v1/trips";
+        http = HttpClient.newHttpClient();
+
+        byte[] payload = new ObjectMapper().findAndRegisterModules()
+                .writeValueAsBytes(TripFixtures.importPayload(trips, meetingsPerTrip));
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(base + ":batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Import failed: " + response.body());
+        }
+        System.out.printf(Locale.ROOT, "%nresponse bytes for %d trips: full %d, fields=%s %d%n",
+                trips, listFull().length, FIELDS, listSparse().length);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int fullQuery() {
+        return readOnly.execute(status -> {
+            List<TripRow> rows = businessTripRepository.findAllRows();
+            List<MeetingDto> meetings = meetingRepository.findDtosByTripIdIn(rows.stream().map(TripRow::id).toList());
+            return rows.size() + meetings.size();
+        });
+    }
+
+    @Benchmark
+    public int sparseQuery() {
+        return readOnly.execute(status -> businessTripRepository.findSparseRowsAfterId(fields, 0L, Limit.unlimited()).size());
+    }
+
+    @Benchmark
+    public byte[] listFull() throws Exception {
+        return get(base);
+    }
+
+    @Benchmark
+    public byte[] listSparse() throws Exception {
+        return get(base + "?fields=" + FIELDS);
+    }
+
+    private byte[] get(String uri) throws Exception {
+        HttpResponse<byte[]> response = http.send(HttpRequest.newBuilder(URI.create(uri)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(uri + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+}
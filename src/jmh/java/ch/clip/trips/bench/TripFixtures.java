@@ -0,0 +1,55 @@
+package ch.clip.trips.bench;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.MeetingDto;
+import ch.clip.trips.model.BusinessTrip;
+import ch.clip.trips.model.Meeting;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic test data shaped like the seed trips: German titles and descriptions and a
+ * varying number of meetings per trip (uniform between 0 and twice the average).
+ */
+final class TripFixtures {
+
+    private static final String[] CITIES = {"Berlin", "Hamburg", "München", "Zürich", "Wien", "Köln", "Düsseldorf", "Basel"};
+    private static final String[] TOPICS = {"Kundenbesuch", "Tech-Konferenz", "Team-Offsite", "Schulung", "Messebesuch"};
+
+    private TripFixtures() {
+    }
+
+    static List<BusinessTrip> entities(int trips, int averageMeetings) {
+        Random random = new Random(42);
+        List<BusinessTrip> result = new ArrayList<>(trips);
+        for (long i = 1; i <= trips; i++) {
+            String city = CITIES[random.nextInt(CITIES.length)];
+            String topic = TOPICS[random.nextInt(TOPICS.length)];
+            LocalDateTime start = LocalDateTime.of(2024, 1, 1, 9, 0).plusDays(random.nextInt(700));
+            BusinessTrip trip = new BusinessTrip(topic + " " + city, "Geschäftsreise nach " + city + " für " + topic + " mit Übernachtung.",
+                    start, start.plusDays(1 + random.nextInt(4)).withHour(18));
+            trip.setId(i);
+            trip.setVersion(0L);
+            int meetingCount = averageMeetings == 0 ? 0 : random.nextInt(2 * averageMeetings + 1);
+            List<Meeting> meetings = new ArrayList<>(meetingCount);
+            for (int m = 0; m < meetingCount; m++) {
+                Meeting meeting = new Meeting("Meeting " + (m + 1) + " in " + city, "Besprechung der nächsten Schritte und Planung für das Quartal", trip);
+                meeting.setId(i * 100 + m);
+                meetings.add(meeting);
+            }
+            trip.setMeetings(meetings);
+            result.add(trip);
+        }
+        return result;
+    }
+
+    static List<BusinessTripDto> importPayload(int trips, int averageMeetings) {
+        return entities(trips, averageMeetings).stream()
+                .map(trip -> new BusinessTripDto(null, trip.getTitle(), trip.getDescription(), trip.getStartTrip(), trip.getEndTrip(),
+                        trip.getMeetings().stream().map(m -> new MeetingDto(null, m.getTitle(), m.getDescription(), null)).toList()))
+                .toList();
+    }
+}
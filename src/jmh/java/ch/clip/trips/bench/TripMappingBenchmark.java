@@ -0,0 +1,62 @@
+package ch.clip.trips.bench;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.TripMapper;
+import ch.clip.trips.model.BusinessTrip;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The list endpoint's hot path without the database: entity to DTO conversion and Jackson
+ * serialization of the resulting records.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TripMappingBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int trips;
+
+    @Param({"2", "10"})
+    public int meetingsPerTrip;
+
+    private List<BusinessTrip> entities;
+    private List<BusinessTripDto> dtos;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        entities = TripFixtures.entities(trips, meetingsPerTrip);
+        dtos = convert();
+        // Same defaults as the ObjectMapper Spring Boot configures for the MVC converters
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public List<BusinessTripDto> convert() {
+        List<BusinessTripDto> result = new ArrayList<>(entities.size());
+        for (BusinessTrip trip : entities) {
+            result.add(TripMapper.convertTripToDto(trip, trip.getMeetings()));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+
+    @Benchmark
+    public byte[] convertAndSerialize() throws Exception {
+        return objectMapper.writeValueAsBytes(convert());
+    }
+}
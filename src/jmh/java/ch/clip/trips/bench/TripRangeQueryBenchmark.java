@@ -0,0 +1,73 @@
+package ch.clip.trips.bench;
+
+import ch.clip.trips.index.TripIntervalTree;
+import ch.clip.trips.model.BusinessTrip;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds the trips overlapping a random one-week window, once with the interval tree and
+ * once by filtering the full trip list as the clients did before the range query existed.
+ * The tree's cost should grow with the number of hits rather than with the table size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TripRangeQueryBenchmark {
+
+    private static final long WEEK = 7 * 24 * 3600L;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int trips;
+
+    private List<BusinessTrip> entities;
+    private TripIntervalTree tree;
+    private long firstStart;
+    private long span;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entities = TripFixtures.entities(trips, 0);
+        List<TripIntervalTree.Interval> intervals = new ArrayList<>(trips);
+        for (BusinessTrip trip : entities) {
+            intervals.add(new TripIntervalTree.Interval(trip.getId(), epochSecond(trip.getStartTrip()), epochSecond(trip.getEndTrip())));
+        }
+        tree = TripIntervalTree.build(intervals);
+        firstStart = epochSecond(LocalDateTime.of(2024, 1, 1, 0, 0));
+        span = 700 * 24 * 3600L;
+        random = new Random(1);
+    }
+
+    @Benchmark
+    public List<Long> intervalTree() {
+        long from = firstStart + (long) (random.nextDouble() * span);
+        return tree.overlapping(from, from + WEEK);
+    }
+
+    @Benchmark
+    public List<Long> linearScan() {
+        long from = firstStart + (long) (random.nextDouble() * span);
+        long to = from + WEEK;
+        List<Long> result = new ArrayList<>();
+        for (BusinessTrip trip : entities) {
+            if (epochSecond(trip.getStartTrip()) <= to && epochSecond(trip.getEndTrip()) >= from) {
+                result.add(trip.getId());
+            }
+        }
+        return result;
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,98 @@
+package ch.clip.trips.bench;
+
+import ch.clip.trips.BusinessTripsBackendApplication;
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.MeetingDto;
+import ch.clip.trips.dto.TripMapper;
+import ch.clip.trips.model.BusinessTrip;
+import ch.clip.trips.model.Meeting;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.repo.MeetingRepository;
+import ch.clip.trips.repo.TripRow;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads all trips with their meetings as DTOs, once by hydrating managed entities and
+ * copying them (the former read path) and once through the constructor-expression
+ * projections. Run with {@code -Djmh.args="-prof gc"} to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TripReadPathBenchmark {
+
+    @Param({"1000", "10000"})
+    public int trips;
+
+    @Param({"3"})
+    public int meetingsPerTrip;
+
+    private ConfigurableApplicationContext context;
+    private BusinessTripRepository businessTripRepository;
+    private MeetingRepository meetingRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(BusinessTripsBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("logging.level.root=WARN", "spring.devtools.restart.enabled=false",
+                        "spring.datasource.url=jdbc:h2:mem:readpath;DB_CLOSE_ON_EXIT=FALSE")
+                .run();
+        businessTripRepository = context.getBean(BusinessTripRepository.class);
+        meetingRepository = context.getBean(MeetingRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        TransactionTemplate write = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        write.executeWithoutResult(status -> businessTripRepository.saveAll(
+                TripFixtures.importPayload(trips, meetingsPerTrip).stream().map(TripMapper::toEntity).toList()));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BusinessTripDto> entities() {
+        return readOnly.execute(status -> {
+            List<BusinessTrip> all = businessTripRepository.findAll();
+            Map<Long, List<Meeting>> meetingsByTrip = new HashMap<>();
+            for (Meeting meeting : meetingRepository.findByBusinessTrip_IdInOrderByIdAsc(all.stream().map(BusinessTrip::getId).toList())) {
+                meetingsByTrip.computeIfAbsent(meeting.getBusinessTrip().getId(), k -> new ArrayList<>()).add(meeting);
+            }
+            return all.stream()
+                    .map(trip -> TripMapper.convertTripToDto(trip, meetingsByTrip.getOrDefault(trip.getId(), List.of())))
+                    .toList();
+        });
+    }
+
+    @Benchmark
+    public List<BusinessTripDto> projections() {
+        return readOnly.execute(status -> {
+            List<TripRow> all = businessTripRepository.findAllRows();
+            Map<Long, List<MeetingDto>> meetingsByTrip = new HashMap<>();
+            for (MeetingDto meeting : meetingRepository.findDtosByTripIdIn(all.stream().map(TripRow::id).toList())) {
+                meetingsByTrip.computeIfAbsent(meeting.businessTripId(), k -> new ArrayList<>()).add(meeting);
+            }
+            return all.stream()
+                    .map(trip -> trip.toDto(meetingsByTrip.getOrDefault(trip.id(), List.of())))
+                    .toList();
+        });
+    }
+}
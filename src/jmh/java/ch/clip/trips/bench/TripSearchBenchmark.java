@@ -0,0 +1,60 @@
+package ch.clip.trips.bench;
+
+import ch.clip.trips.dto.TripMapper;
+import ch.clip.trips.dto.TripSearchHit;
+import ch.clip.trips.event.TripChangeEvent;
+import ch.clip.trips.index.TripSearchIndex;
+import ch.clip.trips.model.BusinessTrip;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-text search over a synthetic corpus with ten meetings per trip on average, so
+ * {@code trips=100000} indexes about one million meetings. The fixture vocabulary is small:
+ * {@code rare} matches a fraction of the trips, {@code common} matches every meeting and
+ * {@code mixed} combines both.
+ * <pre>
+ * ./mvnw -Pbenchmark verify -DskipTests -Djmh.includes=TripSearchBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+@State(Scope.Benchmark)
+public class TripSearchBenchmark {
+
+    private static final int AVERAGE_MEETINGS = 10;
+
+    @Param({"10000", "100000"})
+    public int trips;
+
+    @Param({"rare", "common", "mixed"})
+    public String query;
+
+    private TripSearchIndex index;
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Only the event-driven updates are used, the repositories are never touched
+        index = new TripSearchIndex(null, null, null);
+        for (BusinessTrip trip : TripFixtures.entities(trips, AVERAGE_MEETINGS)) {
+            index.onTripChange(new TripChangeEvent.TripCreated(TripMapper.convertTripToDto(trip, trip.getMeetings())));
+        }
+        text = switch (query) {
+            case "rare" -> "schulung zurich";
+            case "common" -> "besprechung";
+            case "mixed" -> "besprechung schulung basel";
+            default -> throw new IllegalArgumentException(query);
+        };
+    }
+
+    @Benchmark
+    public List<TripSearchHit> search() {
+        return index.search(text, 20);
+    }
+}
@@ -0,0 +1,56 @@
+package ch.clip.trips.load;
+
+import java.util.Arrays;
+
+/**
+ * Collects request latencies and reports percentiles. Each load-generating thread owns
+ * one recorder; they are merged once the run is over.
+ */
+public class LatencyRecorder {
+
+    private long[] nanos = new long[1024];
+    private int size;
+    private int errors;
+
+    public void record(long latencyNanos) {
+        if (size == nanos.length) {
+            nanos = Arrays.copyOf(nanos, size * 2);
+        }
+        nanos[size++] = latencyNanos;
+    }
+
+    public void recordError() {
+        errors++;
+    }
+
+    public int count() {
+        return size;
+    }
+
+    public int errors() {
+        return errors;
+    }
+
+    public static LatencyRecorder merge(Iterable<LatencyRecorder> recorders) {
+        LatencyRecorder merged = new LatencyRecorder();
+        for (LatencyRecorder recorder : recorders) {
+            for (int i = 0; i < recorder.size; i++) {
+                merged.record(recorder.nanos[i]);
+            }
+            merged.errors += recorder.errors;
+        }
+        Arrays.sort(merged.nanos, 0, merged.size);
+        return merged;
+    }
+
+    /**
+     * Percentile in milliseconds; only valid on a recorder returned by {@link #merge}.
+     */
+    public double percentileMillis(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return nanos[Math.max(0, Math.min(index, size - 1))] / 1_000_000.0;
+    }
+}
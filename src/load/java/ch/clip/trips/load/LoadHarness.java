@@ -0,0 +1,211 @@
+package ch.clip.trips.load;
+
+import ch.clip.trips.BusinessTripsBackendApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import static ch.clip.trips.load.ThreadModeComparison.intArg;
+
+/**
+ * Open-model load test: sends requests at a fixed target rate, regardless of how fast the
+ * server answers, and prints latency percentiles per operation.
+ * <p>
+ * Latency is measured from the time a request was scheduled to be sent, not from when it
+ * actually was, so a stalled server shows up as queueing delay in the percentiles instead of
+ * silently lowering the request rate. Each request runs on its own virtual thread.
+ * <p>
+ * Without {@code --url} the application is started in-process on a random port with the
+ * given {@code --profiles}; with it an already running instance is driven, e.g. one started
+ * with {@code -Dspring.profiles.active=prod}. All requests come from one address, so the
+ * in-process instance runs without the per-client rate limit; a remote one needs
+ * {@code trips.rate-limit.enabled=false} as well.
+ * <pre>
+ * ./mvnw -Pload test-compile exec:java -Dexec.mainClass=ch.clip.trips.load.LoadHarness \
+ *     -Dexec.args="--rps=500 --duration=30 --warmup=10 --write-percent=5 [--url=http://localhost:8083] [--profiles=prod]"
+ * </pre>
+ */
+public class LoadHarness {
+
+    private static final String DETAIL = "trip detail";
+    private static final String MEETINGS = "trip meetings";
+    private static final String LIST = "list page";
+    private static final String RANGE = "date range";
+    private static final String ADD_MEETING = "add meeting";
+    // Recorders are not thread-safe; requests spread over this many locked shards per operation
+    private static final int SHARDS = 16;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String base;
+    private final List<Long> tripIds;
+    private final int writePercent;
+
+    LoadHarness(String base, List<Long> tripIds, int writePercent) {
+        this.base = base;
+        this.tripIds = tripIds;
+        this.writePercent = writePercent;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int rps = intArg(args, "rps", 200);
+        int durationSeconds = intArg(args, "duration", 30);
+        int warmupSeconds = intArg(args, "warmup", 10);
+        int writePercent = intArg(args, "write-percent", 0);
+        String url = stringArg(args, "url", null);
+
+        if (url != null) {
+            run(url, rps, warmupSeconds, durationSeconds, writePercent);
+            return;
+        }
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BusinessTripsBackendApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN", "trips.rate-limit.enabled=false");
+        String profiles = stringArg(args, "profiles", null);
+        if (profiles != null) {
+            builder.profiles(profiles.split(","));
+        }
+        try (ConfigurableApplicationContext context = builder.run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            run("http://localhost:" + port, rps, warmupSeconds, durationSeconds, writePercent);
+        }
+    }
+
+    private static void run(String url, int rps, int warmupSeconds, int durationSeconds, int writePercent) throws Exception {
+        LoadHarness harness = new LoadHarness(url + "/v1/trips", fetchTripIds(url + "/v1/trips"), writePercent);
+        System.out.printf(Locale.ROOT, "%d trips, target %d req/s, warmup %ds, measuring %ds%n",
+                harness.tripIds.size(), rps, warmupSeconds, durationSeconds);
+        harness.drive(rps, warmupSeconds);
+        Map<String, LatencyRecorder> results = harness.drive(rps, durationSeconds);
+
+        System.out.printf(Locale.ROOT, "%-14s %9s %9s %9s %9s %9s %9s %7s%n",
+                "operation", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        results.forEach((operation, result) -> System.out.printf(Locale.ROOT,
+                "%-14s %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %7d%n", operation,
+                result.count() / (double) durationSeconds,
+                result.percentileMillis(50), result.percentileMillis(90), result.percentileMillis(99),
+                result.percentileMillis(99.9), result.percentileMillis(100), result.errors()));
+    }
+
+    /**
+     * Sends {@code rps} requests per second for {@code seconds}, then waits for the
+     * outstanding ones.
+     */
+    Map<String, LatencyRecorder> drive(int rps, int seconds) {
+        Map<String, LatencyRecorder[]> shards = new LinkedHashMap<>();
+        for (String operation : List.of(DETAIL, MEETINGS, LIST, RANGE, ADD_MEETING)) {
+            LatencyRecorder[] recorders = new LatencyRecorder[SHARDS];
+            for (int i = 0; i < SHARDS; i++) {
+                recorders[i] = new LatencyRecorder();
+            }
+            shards.put(operation, recorders);
+        }
+
+        long interval = 1_000_000_000L / rps;
+        long total = (long) rps * seconds;
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < total; i++) {
+                long scheduled = start + i * interval;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                String operation = pickOperation();
+                LatencyRecorder shard = shards.get(operation)[(int) (i % SHARDS)];
+                executor.submit(() -> send(operation, scheduled, shard));
+            }
+        }
+
+        Map<String, LatencyRecorder> merged = new LinkedHashMap<>();
+        shards.forEach((operation, recorders) -> merged.put(operation, LatencyRecorder.merge(List.of(recorders))));
+        merged.values().removeIf(recorder -> recorder.count() == 0 && recorder.errors() == 0);
+        return merged;
+    }
+
+    private void send(String operation, long scheduled, LatencyRecorder recorder) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Long tripId = tripIds.get(random.nextInt(tripIds.size()));
+        HttpRequest.Builder request = switch (operation) {
+            case DETAIL -> HttpRequest.newBuilder(URI.create(base + "/" + tripId));
+            case MEETINGS -> HttpRequest.newBuilder(URI.create(base + "/" + tripId + "/meetings"));
+            case LIST -> HttpRequest.newBuilder(URI.create(base + "?view=summary&limit=50"));
+            case RANGE -> {
+                LocalDate from = LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365));
+                yield HttpRequest.newBuilder(URI.create(base + "?view=summary&from=" + from + "&to=" + from.plusDays(7)));
+            }
+            default -> HttpRequest.newBuilder(URI.create(base + "/" + tripId + "/meetings"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"title\":\"Load test\",\"description\":\"Generated\"}"));
+        };
+        boolean ok;
+        try {
+            HttpResponse<Void> response = http.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            ok = response.statusCode() < 300;
+        } catch (Exception e) {
+            ok = false;
+        }
+        long latency = System.nanoTime() - scheduled;
+        synchronized (recorder) {
+            if (ok) {
+                recorder.record(latency);
+            } else {
+                recorder.recordError();
+            }
+        }
+    }
+
+    private String pickOperation() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        if (roll < writePercent) {
+            return ADD_MEETING;
+        }
+        // Reads: 50% detail, 20% meetings, 15% list pages, 15% date ranges
+        int read = ThreadLocalRandom.current().nextInt(100);
+        return read < 50 ? DETAIL : read < 70 ? MEETINGS : read < 85 ? LIST : RANGE;
+    }
+
+    private static List<Long> fetchTripIds(String base) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(base + "?view=summary")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode trip : new ObjectMapper().readTree(response.body())) {
+            ids.add(trip.get("id").asLong());
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No trips to request at " + base);
+        }
+        return ids;
+    }
+
+    static String stringArg(String[] args, String name, String defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + name + "=")) {
+                return arg.substring(name.length() + 3);
+            }
+        }
+        return defaultValue;
+    }
+}
@@ -0,0 +1,92 @@
+package ch.clip.trips.load;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static ch.clip.trips.load.LoadHarness.stringArg;
+import static ch.clip.trips.load.ThreadModeComparison.intArg;
+
+/**
+ * Measures time to first successful request: starts the packaged application as a separate
+ * process and polls {@code GET /v1/trips} until it answers 200.
+ * <ul>
+ *     <li>{@code war}: the executable war from {@code ./mvnw package}</li>
+ *     <li>{@code cds}: the AOT-processed jar with its CDS archive from {@code ./mvnw -Pcds package}</li>
+ * </ul>
+ * Both run with an in-memory database so only startup work is measured.
+ * <pre>
+ * ./mvnw -Pcds -DskipTests package
+ * ./mvnw -Pload test-compile exec:java -Dexec.mainClass=ch.clip.trips.load.StartupBenchmark \
+ *     -Dexec.args="--runs=5 --modes=war,cds"
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final String ARTIFACT = "SpringBootSimpleBiztripsBackend-0.0.1-SNAPSHOT";
+
+    public static void main(String[] args) throws Exception {
+        int runs = intArg(args, "runs", 5);
+        int port = intArg(args, "port", 18083);
+        String profiles = stringArg(args, "profiles", "prod");
+        List<String> modes = List.of(stringArg(args, "modes", "war,cds").split(","));
+
+        System.out.printf(Locale.ROOT, "%-6s %10s %10s %10s%n", "mode", "min ms", "median ms", "max ms");
+        for (String mode : modes) {
+            List<Long> millis = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                millis.add(timeToFirstRequest(mode, profiles, port));
+            }
+            Collections.sort(millis);
+            System.out.printf(Locale.ROOT, "%-6s %10d %10d %10d%n", mode,
+                    millis.get(0), millis.get(millis.size() / 2), millis.get(millis.size() - 1));
+        }
+    }
+
+    private static long timeToFirstRequest(String mode, String profiles, int port) throws Exception {
+        List<String> command = new ArrayList<>(List.of("java"));
+        File directory = new File("target");
+        if ("cds".equals(mode)) {
+            directory = new File("target/cds");
+            command.addAll(List.of("-Xlog:cds=off", "-XX:SharedArchiveFile=app.jsa", "-Dspring.aot.enabled=true"));
+        }
+        command.addAll(List.of("-Dspring.profiles.active=" + profiles, "-Dserver.port=" + port,
+                "-Dspring.datasource.url=jdbc:h2:mem:startup", "-Dtrips.seed.mode=async",
+                "-jar", "cds".equals(mode) ? ARTIFACT + "-cds.jar" : ARTIFACT + ".war"));
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/trips")).build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(directory)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited with " + process.exitValue());
+                }
+                try {
+                    if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(20);
+            }
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+}
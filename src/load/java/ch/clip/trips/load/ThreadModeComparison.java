@@ -0,0 +1,172 @@
+package ch.clip.trips.load;
+
+import ch.clip.trips.BusinessTripsBackendApplication;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-model load test comparing platform-thread and virtual-thread request handling.
+ * <p>
+ * Boots the application once per mode on a random port, drives it with a fixed number of
+ * concurrent clients and prints throughput and latency percentiles. Slow JDBC is simulated
+ * by delaying every connection checkout; half of the requests hit the cached trip detail
+ * endpoint and never need a connection, which is where blocked platform threads hurt.
+ * <pre>
+ * ./mvnw -Pload test-compile exec:java -Dexec.mainClass=ch.clip.trips.load.ThreadModeComparison \
+ *     -Dexec.args="--clients=400 --duration=20 --db-latency-ms=20"
+ * </pre>
+ */
+public class ThreadModeComparison {
+
+    public static void main(String[] args) throws Exception {
+        int clients = intArg(args, "clients", 400);
+        int durationSeconds = intArg(args, "duration", 20);
+        int warmupSeconds = intArg(args, "warmup", 5);
+        int dbLatencyMillis = intArg(args, "db-latency-ms", 20);
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        System.out.printf(Locale.ROOT, "%-10s %10s %10s %10s %10s %8s%n", "mode", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (String mode : List.of("platform", "virtual")) {
+            LatencyRecorder result = run(mode, clients, warmupSeconds, durationSeconds, dbLatencyMillis);
+            System.out.printf(Locale.ROOT, "%-10s %10.1f %10.2f %10.2f %10.2f %8d%n", mode,
+                    result.count() / (double) durationSeconds,
+                    result.percentileMillis(50), result.percentileMillis(99), result.percentileMillis(100),
+                    result.errors());
+        }
+    }
+
+    private static LatencyRecorder run(String mode, int clients, int warmupSeconds, int durationSeconds,
+                                       int dbLatencyMillis) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BusinessTripsBackendApplication.class, SlowDatabase.class)
+                .properties("server.port=0", "trips.load.db-latency-ms=" + dbLatencyMillis,
+                        "server.tomcat.threads.max=200", "logging.level.root=WARN",
+                        "trips.rate-limit.enabled=false", "trips.load-shedding.enabled=false");
+        if ("virtual".equals(mode)) {
+            builder.profiles("virtual");
+        }
+        try (ConfigurableApplicationContext context = builder.run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String base = "http://localhost:" + port + "/v1/trips";
+            drive(base, clients, warmupSeconds);
+            return drive(base, clients, durationSeconds);
+        }
+    }
+
+    static LatencyRecorder drive(String base, int clients, int seconds) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<LatencyRecorder> recorders = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                recorders.add(recorder);
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        // Seed data uses ids 1..10; even requests hit the cached detail view
+                        boolean cached = ThreadLocalRandom.current().nextBoolean();
+                        URI uri = URI.create(cached ? base + "/" + (1 + ThreadLocalRandom.current().nextInt(10))
+                                : base + "?view=summary");
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).build(),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200) {
+                                recorder.record(System.nanoTime() - start);
+                            } else {
+                                recorder.recordError();
+                            }
+                        } catch (Exception e) {
+                            recorder.recordError();
+                        }
+                    }
+                });
+            }
+        }
+        return LatencyRecorder.merge(recorders);
+    }
+
+    static int intArg(String[] args, String name, int defaultValue) {
+        for (String arg : args) {
+            if (arg.startsWith("--" + name + "=")) {
+                return Integer.parseInt(arg.substring(name.length() + 3));
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Delays every connection checkout to simulate a remote database. Runs before any other
+     * post-processor so that the virtual profile's concurrency limit wraps the slow pool.
+     */
+    @Configuration(proxyBeanMethods = false)
+    static class SlowDatabase {
+
+        @Bean
+        static BeanPostProcessor slowDataSourcePostProcessor(Environment environment) {
+            long latency = environment.getProperty("trips.load.db-latency-ms", Long.class, 0L);
+            return new SlowDataSourcePostProcessor(latency);
+        }
+    }
+
+    record SlowDataSourcePostProcessor(long latency) implements BeanPostProcessor, PriorityOrdered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (latency > 0 && bean instanceof DataSource dataSource && !(bean instanceof SlowDataSource)) {
+                return new SlowDataSource(dataSource, latency);
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+    }
+
+    static class SlowDataSource extends DelegatingDataSource {
+        private final long latency;
+
+        SlowDataSource(DataSource target, long latency) {
+            super(target);
+            this.latency = latency;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return connection;
+        }
+    }
+}
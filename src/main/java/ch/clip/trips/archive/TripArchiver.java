@@ -0,0 +1,161 @@
+package ch.clip.trips.archive;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.MeetingDto;
+import ch.clip.trips.event.TripChangeEvent;
+import ch.clip.trips.model.ArchivedTrip;
+import ch.clip.trips.repo.ArchivedTripRepository;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.repo.MeetingRepository;
+import ch.clip.trips.repo.TripRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Moves completed trips into the {@link ArchivedTrip} cold tier. Trips whose end lies more
+ * than {@code trips.archive.retention} in the past are copied together with their meetings
+ * and then removed from the active tables, {@code trips.archive.batch-size} trips per
+ * transaction. Archived trips are announced as deleted, so caches and indexes of the active
+ * data drop them.
+ * <p>
+ * Meetings are deleted by the ids that were copied; a meeting added to a trip while it is
+ * being archived makes the trip delete fail, the batch rolls back and is retried on the next run.
+ */
+@Component
+public class TripArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(TripArchiver.class);
+    private static final TypeReference<List<MeetingDto>> MEETING_LIST = new TypeReference<>() {
+    };
+
+    private final BusinessTripRepository businessTripRepository;
+    private final MeetingRepository meetingRepository;
+    private final ArchivedTripRepository archivedTripRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final int batchSize;
+    private final Counter archived;
+
+    public TripArchiver(BusinessTripRepository businessTripRepository,
+                        MeetingRepository meetingRepository,
+                        ArchivedTripRepository archivedTripRepository,
+                        TransactionTemplate transactionTemplate,
+                        ApplicationEventPublisher eventPublisher,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${trips.archive.retention:30d}") Duration retention,
+                        @Value("${trips.archive.batch-size:500}") int batchSize) {
+        this.businessTripRepository = businessTripRepository;
+        this.meetingRepository = meetingRepository;
+        this.archivedTripRepository = archivedTripRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.archived = Counter.builder("trips.archived")
+                .description("Trips moved to the archive")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${trips.archive.cron:0 30 3 * * *}")
+    public void archivePastTrips() {
+        try {
+            int count = archiveEndedBefore(LocalDateTime.now().minus(retention));
+            log.info("Archived {} trips", count);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Archival stopped, trips were changed while being archived: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Archives all trips that ended before {@code cutoff}.
+     *
+     * @return the number of archived trips
+     */
+    public int archiveEndedBefore(LocalDateTime cutoff) {
+        int total = 0;
+        while (true) {
+            List<TripChangeEvent.TripDeleted> moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            if (moved.isEmpty()) {
+                return total;
+            }
+            moved.forEach(eventPublisher::publishEvent);
+            archived.increment(moved.size());
+            total += moved.size();
+        }
+    }
+
+    private List<TripChangeEvent.TripDeleted> archiveBatch(LocalDateTime cutoff) {
+        List<TripRow> trips = businessTripRepository.findRowPageEndedBefore(cutoff, Limit.of(batchSize));
+        if (trips.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = trips.stream().map(TripRow::id).toList();
+        List<MeetingDto> meetings = meetingRepository.findDtosByTripIdIn(ids);
+        Map<Long, List<MeetingDto>> meetingsByTrip = meetings.stream()
+                .collect(Collectors.groupingBy(MeetingDto::businessTripId));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ArchivedTrip> archive = new ArrayList<>(trips.size());
+        List<TripChangeEvent.TripDeleted> moved = new ArrayList<>(trips.size());
+        for (TripRow trip : trips) {
+            List<MeetingDto> tripMeetings = meetingsByTrip.getOrDefault(trip.id(), List.of());
+            archive.add(new ArchivedTrip(trip.id(), trip.title(), trip.description(), trip.startTrip(), trip.endTrip(),
+                    now, writeMeetings(tripMeetings)));
+            moved.add(new TripChangeEvent.TripDeleted(trip.id(), trip.startTrip(), trip.endTrip(), tripMeetings.size()));
+        }
+        archivedTripRepository.saveAll(archive);
+        if (!meetings.isEmpty()) {
+            meetingRepository.deleteByIdIn(meetings.stream().map(MeetingDto::id).toList());
+        }
+        businessTripRepository.deleteByIdIn(ids);
+        return moved;
+    }
+
+    /**
+     * @param withMeetings {@code false} leaves the meetings out without parsing them
+     */
+    public BusinessTripDto toDto(ArchivedTrip trip, boolean withMeetings) {
+        return new BusinessTripDto(trip.getId(), trip.getTitle(), trip.getDescription(), trip.getStartTrip(),
+                trip.getEndTrip(), withMeetings ? readMeetings(trip.getMeetingsJson()) : null);
+    }
+
+    private String writeMeetings(List<MeetingDto> meetings) {
+        try {
+            return objectMapper.writeValueAsString(meetings);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<MeetingDto> readMeetings(String json) {
+        try {
+            return objectMapper.readValue(json, MEETING_LIST);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
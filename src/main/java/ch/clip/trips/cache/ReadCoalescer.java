@@ -0,0 +1,118 @@
+package ch.clip.trips.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical reads: while a read for a key runs, further calls
+ * with an equal key wait for it and share its result instead of querying again. Nothing is
+ * kept once the read completes, so unlike a cache a result is only shared by calls that
+ * overlapped with it. Keys should contain whatever version the caller has already seen, so
+ * that callers never share a read that started before a change they know about.
+ * <p>
+ * Per read, {@code trips.reads{read,result}} counts calls that ran the read ({@code executed})
+ * and calls that shared another one's result ({@code shared}); the gauge
+ * {@code trips.reads.coalescing-ratio{read}} is the share of the latter so far.
+ */
+@Component
+public class ReadCoalescer {
+
+    private final Map<Flight, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, ReadCounters> counters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public ReadCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs {@code load}, or waits for the running call with the same {@code read} and
+     * {@code key} and returns its result or exception.
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V coalesce(String read, Object key, Supplier<V> load) {
+        Flight flight = new Flight(read, key);
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(flight, mine);
+        if (running != null) {
+            record(read, true);
+            return (V) await(running);
+        }
+        record(read, false);
+        try {
+            V value = load.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flight, mine);
+        }
+    }
+
+    /**
+     * Counts a read coalesced elsewhere, e.g. by a cache that runs one load per key.
+     *
+     * @param shared whether the call used another call's result instead of running the read
+     */
+    public void record(String read, boolean shared) {
+        ReadCounters readCounters = counters.computeIfAbsent(read, ReadCounters::new);
+        (shared ? readCounters.shared : readCounters.executed).increment();
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced read", e);
+        }
+    }
+
+    private record Flight(String read, Object key) {
+    }
+
+    private final class ReadCounters {
+        final Counter executed;
+        final Counter shared;
+
+        ReadCounters(String read) {
+            executed = counter(read, "executed");
+            shared = counter(read, "shared");
+            Gauge.builder("trips.reads.coalescing-ratio", this, ReadCounters::ratio)
+                    .description("Share of reads answered with the result of a concurrent identical read")
+                    .tag("read", read)
+                    .register(meterRegistry);
+        }
+
+        private Counter counter(String read, String result) {
+            return Counter.builder("trips.reads")
+                    .description("Reads by whether they ran or shared a concurrent identical read")
+                    .tag("read", read)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+
+        double ratio() {
+            double total = executed.count() + shared.count();
+            return total == 0 ? 0 : shared.count() / total;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package ch.clip.trips.cache;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.MeetingDto;
+import ch.clip.trips.event.TripChangeEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for trip details and per-trip meeting lists, each kept with the
+ * trip version it was loaded at so conditional requests can be answered from memory.
+ * <p>
+ * Both caches are bounded (W-TinyLFU eviction) and expire entries after a fixed time,
+ * so a missed invalidation can only serve stale data for a limited period. Loaders may
+ * return {@code null} for unknown trips; such results are not cached. Hit, miss and
+ * eviction counts are published as {@code cache.*} metrics tagged with the cache name.
+ * <p>
+ * Caffeine runs one load per key at a time, so concurrent misses for the same trip share a
+ * single query; how many did is recorded through {@link ReadCoalescer#record}. An eviction
+ * waits for a running load of its key, so a load cannot put back data older than the change.
+ */
+@Component
+public class TripDtoCache {
+
+    public static final String TRIPS = "trips";
+    public static final String TRIP_MEETINGS = "tripMeetings";
+
+    private final Cache<Long, Versioned<BusinessTripDto>> trips;
+    private final Cache<Long, Versioned<List<MeetingDto>>> meetings;
+    private final ReadCoalescer readCoalescer;
+
+    public TripDtoCache(@Value("${trips.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${trips.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                        MeterRegistry meterRegistry,
+                        ReadCoalescer readCoalescer) {
+        this.readCoalescer = readCoalescer;
+        this.trips = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.meetings = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, trips, TRIPS);
+        CaffeineCacheMetrics.monitor(meterRegistry, meetings, TRIP_MEETINGS);
+    }
+
+    public Versioned<BusinessTripDto> getTrip(Long tripId, Function<Long, Versioned<BusinessTripDto>> loader) {
+        return get(trips, TRIPS, tripId, loader);
+    }
+
+    /**
+     * The cached trip, or {@code null} if it is not cached; never loads it.
+     */
+    public Versioned<BusinessTripDto> peekTrip(Long tripId) {
+        return trips.getIfPresent(tripId);
+    }
+
+    public Versioned<List<MeetingDto>> getMeetings(Long tripId, Function<Long, Versioned<List<MeetingDto>>> loader) {
+        return get(meetings, TRIP_MEETINGS, tripId, loader);
+    }
+
+    @EventListener
+    public void onTripChange(TripChangeEvent event) {
+        evict(event.tripId());
+    }
+
+    /**
+     * Drops everything cached for the given trip. Must be called after a change to the
+     * trip or its meetings has been committed.
+     */
+    public void evict(Long tripId) {
+        trips.invalidate(tripId);
+        meetings.invalidate(tripId);
+    }
+
+    // A miss that did not run the loader itself got the result of a concurrent load
+    private <V> V get(Cache<Long, V> cache, String name, Long tripId, Function<Long, V> loader) {
+        boolean miss = cache.policy().getIfPresentQuietly(tripId) == null;
+        boolean[] loaded = new boolean[1];
+        V value = cache.get(tripId, key -> {
+            loaded[0] = true;
+            return loader.apply(key);
+        });
+        if (miss) {
+            readCoalescer.record(name, !loaded[0]);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,7 @@
+package ch.clip.trips.cache;
+
+/**
+ * A cached value together with the trip version it was read at.
+ */
+public record Versioned<T>(T value, long version) {
+}
@@ -0,0 +1,35 @@
+package ch.clip.trips.config;
+
+import ch.clip.trips.limit.AdaptiveConcurrencyLimit;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+/**
+ * Active with {@code trips.load-shedding.enabled=true}: registers the
+ * {@link AdaptiveConcurrencyLimit} as invocation listener on every repository, the same way
+ * Spring Boot attaches its {@code spring.data.repository.invocations} timer.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "trips.load-shedding.enabled", havingValue = "true")
+public class LoadSheddingConfiguration {
+
+    @Bean
+    static BeanPostProcessor repositoryLatencyListenerPostProcessor(ObjectProvider<AdaptiveConcurrencyLimit> concurrencyLimit) {
+        // Resolved on first use so the post-processor does not initialize the limit early
+        SingletonSupplier<AdaptiveConcurrencyLimit> listener = SingletonSupplier.of(concurrencyLimit::getObject);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addInvocationListener(listener.obtain()));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package ch.clip.trips.config;
+
+import ch.clip.trips.metrics.StatementCountingDataSource;
+import ch.clip.trips.metrics.TimedJacksonHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import javax.sql.DataSource;
+
+/**
+ * Metrics beyond what Spring Boot records out of the box. Request latency per handler
+ * ({@code http.server.requests}) and per repository method
+ * ({@code spring.data.repository.invocations}) are auto-configured; this adds the
+ * serialization timer (the CBOR and Smile converters are timed in
+ * {@link BinaryFormatConfiguration}) and the per-request statement count. DTO mapping is
+ * timed in the controller as {@code trips.mapping}.
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfiguration {
+
+    // Replaces Spring Boot's default JSON converter
+    @Bean
+    MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                          MeterRegistry meterRegistry) {
+        return new TimedJacksonHttpMessageConverter(objectMapper, meterRegistry);
+    }
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementCountingDataSource)) {
+                    return new StatementCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package ch.clip.trips.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Active together with {@code spring.threads.virtual.enabled=true} (see the {@code virtual}
+ * profile). Spring Boot then runs Tomcat request handling and the MVC async executor on
+ * virtual threads; this configuration adds the matching limit on concurrent database access.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    @Bean
+    static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitingDataSource)) {
+                    // Defaults to the Hikari pool size so callers wait on the semaphore, not inside the pool
+                    int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                    int maxConcurrency = environment.getProperty("trips.db.max-concurrency", Integer.class, poolSize);
+                    Duration timeout = environment.getProperty("trips.db.acquire-timeout", Duration.class, Duration.ofSeconds(30));
+                    return new ConcurrencyLimitingDataSource(dataSource, maxConcurrency, timeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
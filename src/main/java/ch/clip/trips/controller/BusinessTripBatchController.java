@@ -0,0 +1,192 @@
+package ch.clip.trips.controller;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.TripImportReport;
+import ch.clip.trips.dto.TripImportResult;
+import ch.clip.trips.dto.TripLookupReport;
+import ch.clip.trips.dto.TripLookupRequest;
+import ch.clip.trips.dto.TripMapper;
+import ch.clip.trips.dto.TripMeetingsReport;
+import ch.clip.trips.event.TripChangeEvent;
+import ch.clip.trips.lookup.TripLookup;
+import ch.clip.trips.model.BusinessTrip;
+import ch.clip.trips.repo.BusinessTripRepository;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk operations on trips. Most use Google-style custom methods ({@code /v1/trips:batch}),
+ * which cannot be expressed below the {@code /v1/trips} mapping of {@link BusinessTripController}.
+ */
+@RestController
+@RequestMapping("/v1")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:8082"})
+public class BusinessTripBatchController {
+    private static final Logger log = LoggerFactory.getLogger(BusinessTripBatchController.class);
+
+    static final int MAX_CHUNK_SIZE = 5000;
+
+    @Autowired
+    private BusinessTripRepository businessTripRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TripLookup tripLookup;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${trips.import.chunk-size:500}")
+    private int defaultChunkSize;
+
+    /**
+     * Imports trips including their meetings from a JSON array or NDJSON body. The body is
+     * read incrementally and every {@code chunkSize} trips are inserted with JDBC batching and
+     * committed in their own transaction. If a chunk fails, its trips are retried one by one so
+     * that a single bad row does not reject its neighbours. The response lists one result per
+     * input item, in input order.
+     */
+    @PostMapping(path = "/trips:batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<TripImportReport> importTrips(@RequestParam(required = false) Integer chunkSize,
+                                                        HttpServletRequest request) throws IOException {
+        int size = Math.min(Math.max(chunkSize == null ? defaultChunkSize : chunkSize, 1), MAX_CHUNK_SIZE);
+        List<TripImportResult> results = new ArrayList<>();
+        List<PendingTrip> chunk = new ArrayList<>(size);
+        int index = 0;
+
+        try (MappingIterator<BusinessTripDto> items = objectMapper.readerFor(BusinessTripDto.class)
+                .readValues(request.getInputStream())) {
+            while (true) {
+                BusinessTripDto dto;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    dto = items.nextValue();
+                } catch (JsonParseException e) {
+                    // Malformed JSON: the rest of the stream cannot be read reliably
+                    results.add(TripImportResult.failed(index, "Malformed JSON: " + e.getOriginalMessage()));
+                    break;
+                } catch (JsonMappingException e) {
+                    results.add(TripImportResult.failed(index++, "Invalid trip: " + e.getOriginalMessage()));
+                    continue;
+                }
+
+                String problem = validate(dto);
+                if (problem != null) {
+                    results.add(TripImportResult.failed(index++, problem));
+                    continue;
+                }
+                chunk.add(new PendingTrip(index++, dto));
+                if (chunk.size() == size) {
+                    results.addAll(saveChunk(chunk));
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(saveChunk(chunk));
+        }
+
+        results.sort((a, b) -> Integer.compare(a.index(), b.index()));
+        int created = (int) results.stream().filter(r -> r.status() == TripImportResult.Status.CREATED).count();
+        return ResponseEntity.ok(new TripImportReport(created, results.size() - created, results));
+    }
+
+    /**
+     * Meetings of many trips at once, grouped by trip id, e.g. {@code ?tripIds=1,2,3}. Unknown
+     * trips are listed under {@code missing}.
+     */
+    @GetMapping("/trips/meetings")
+    public TripMeetingsReport getMeetingsOfTrips(@RequestParam List<Long> tripIds) {
+        return tripLookup.meetings(tripIds);
+    }
+
+    /**
+     * Trips including their meetings for the ids in the body; takes more ids than fit into a
+     * query string. Unknown trips are listed under {@code missing}.
+     */
+    @PostMapping(path = "/trips:lookup", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public TripLookupReport lookupTrips(@RequestBody TripLookupRequest request) {
+        return tripLookup.trips(request.ids());
+    }
+
+    private List<TripImportResult> saveChunk(List<PendingTrip> chunk) {
+        List<BusinessTripDto> created = new ArrayList<>(chunk.size());
+        try {
+            List<TripImportResult> saved = transactionTemplate.execute(status -> {
+                List<TripImportResult> results = new ArrayList<>(chunk.size());
+                List<BusinessTrip> trips = businessTripRepository.saveAll(chunk.stream().map(p -> TripMapper.toEntity(p.dto())).toList());
+                entityManager.flush();
+                for (int i = 0; i < chunk.size(); i++) {
+                    BusinessTrip trip = trips.get(i);
+                    results.add(TripImportResult.created(chunk.get(i).index(), trip.getId()));
+                    created.add(TripMapper.convertTripToDto(trip, trip.getMeetings()));
+                }
+                entityManager.clear();
+                return results;
+            });
+            created.forEach(trip -> eventPublisher.publishEvent(new TripChangeEvent.TripCreated(trip)));
+            return saved;
+        } catch (RuntimeException e) {
+            log.warn("Import chunk of {} trips failed, retrying individually: {}", chunk.size(), e.getMessage());
+            return chunk.stream().map(this::saveSingle).toList();
+        }
+    }
+
+    private TripImportResult saveSingle(PendingTrip pending) {
+        try {
+            BusinessTripDto trip = transactionTemplate.execute(status -> {
+                BusinessTrip saved = businessTripRepository.save(TripMapper.toEntity(pending.dto()));
+                return TripMapper.convertTripToDto(saved, saved.getMeetings());
+            });
+            eventPublisher.publishEvent(new TripChangeEvent.TripCreated(trip));
+            return TripImportResult.created(pending.index(), trip.id());
+        } catch (RuntimeException e) {
+            return TripImportResult.failed(pending.index(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    private static String validate(BusinessTripDto dto) {
+        if (dto == null) {
+            return "Trip must not be null";
+        }
+        if (dto.title() == null || dto.title().isBlank()) {
+            return "Title is required";
+        }
+        if (dto.startTrip() != null && dto.endTrip() != null && dto.endTrip().isBefore(dto.startTrip())) {
+            return "endTrip must not be before startTrip";
+        }
+        return null;
+    }
+
+    private record PendingTrip(int index, BusinessTripDto dto) {
+    }
+}
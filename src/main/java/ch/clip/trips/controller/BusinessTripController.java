@@ -1,49 +1,449 @@
 package ch.clip.trips.controller;
 
+import ch.clip.trips.archive.TripArchiver;
+import ch.clip.trips.cache.ReadCoalescer;
+import ch.clip.trips.cache.TripDtoCache;
+import ch.clip.trips.cache.Versioned;
 import ch.clip.trips.dto.BusinessTripDto;
 import ch.clip.trips.dto.MeetingDto;
+import ch.clip.trips.dto.MeetingWriteStatus;
+import ch.clip.trips.dto.TripDeleteReport;
+import ch.clip.trips.dto.TripDateRange;
+import ch.clip.trips.dto.TripFields;
+import ch.clip.trips.dto.TripMapper;
+import ch.clip.trips.dto.TripSearchHit;
+import ch.clip.trips.dto.TripStats;
+import ch.clip.trips.event.TripChangeEvent;
+import ch.clip.trips.event.TripChangeFeed;
+import ch.clip.trips.ex.AmbiguousDeleteCriteriaException;
 import ch.clip.trips.ex.BusinessTripNotFoundException;
+import ch.clip.trips.ex.MeetingNotFoundException;
+import ch.clip.trips.ex.MissingDeleteCriteriaException;
+import ch.clip.trips.ex.TripModifiedException;
+import ch.clip.trips.idempotency.IdempotencyStore;
+import ch.clip.trips.index.TripSearchIndex;
+import ch.clip.trips.listing.TripListing;
+import ch.clip.trips.model.ArchivedTrip;
 import ch.clip.trips.model.BusinessTrip;
 import ch.clip.trips.model.Meeting;
+import ch.clip.trips.repo.ArchivedTripRepository;
 import ch.clip.trips.repo.BusinessTripRepository;
 import ch.clip.trips.repo.MeetingRepository;
+import ch.clip.trips.repo.TripDeletion;
+import ch.clip.trips.repo.TripMeetingRow;
+import ch.clip.trips.repo.TripRow;
+import ch.clip.trips.stats.TripStatistics;
+import ch.clip.trips.writebehind.MeetingWriteBehindQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/v1/trips")
-@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:8082"})
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:8082"}, exposedHeaders = {"ETag", "Link", IdempotencyStore.REPLAYED_HEADER})
 public class BusinessTripController {
 
+    static final int STREAM_CHUNK_SIZE = 500;
+    static final int MAX_SEARCH_RESULTS = 100;
+    static final long GROUP_COMMIT_TIMEOUT_SECONDS = 30;
+    static final String TRIP_FIELDS_READ = "tripFields";
+
     @Autowired
     private BusinessTripRepository businessTripRepository;
 
     @Autowired
     private MeetingRepository meetingRepository;
 
+    @Autowired
+    private TripDtoCache tripDtoCache;
+
+    @Autowired
+    private ReadCoalescer readCoalescer;
+
+    @Autowired
+    private TripListing tripListing;
+
+    @Autowired
+    private TripSearchIndex tripSearchIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TripChangeFeed tripChangeFeed;
+
+    @Autowired(required = false)
+    private MeetingWriteBehindQueue meetingWriteBehindQueue;
+
+    @Autowired
+    private ArchivedTripRepository archivedTripRepository;
+
+    @Autowired
+    private TripArchiver tripArchiver;
+
+    @Autowired
+    private TripStatistics tripStatistics;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer detailMapping;
+
+    @PostConstruct
+    void registerMappingTimer() {
+        detailMapping = TripListing.mappingTimer("detail", meterRegistry);
+    }
+
+    /**
+     * Lists trips. Without {@code limit} or {@code cursor} the whole table is returned as before;
+     * with either of them a keyset page is returned and the next page is announced in a
+     * {@code Link: <...>; rel="next"} header. {@code view=summary} leaves out the meetings.
+     * <p>
+     * {@code from} and {@code to} (ISO dates or date-times, both inclusive, either may be
+     * omitted) restrict the result to trips whose travel period overlaps the range, ordered by
+     * start; {@code from=D&to=D} lists everyone travelling on day D. Range results are not paged.
+     * The ETag is derived from an aggregate over all trip versions, so an unchanged list is
+     * answered with 304 before any trip is loaded; everything past that is resolved by
+     * {@link TripListing}.
+     * <p>
+     * Archived trips are left out unless {@code includeArchived=true}; they are then merged
+     * into the result in the same order, in all three modes.
+     * <p>
+     * {@code fields} (e.g. {@code fields=title,startTrip,endTrip}) returns only the listed
+     * properties plus {@code id}. Only their columns are selected, meetings are loaded only if
+     * listed, and it takes precedence over {@code view}. Archived trips are read in full and
+     * trimmed afterwards.
+     */
     @GetMapping
-    public ResponseEntity<List<BusinessTripDto>> getAllTrips() {
-        List<BusinessTripDto> trips = businessTripRepository.findAll().stream()
-                .map(this::convertTripToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(trips);
+    public ResponseEntity<List<?>> getAllTrips(@RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "id") String sort,
+                                                    @RequestParam(defaultValue = "full") String view,
+                                                    @RequestParam(required = false) String from,
+                                                    @RequestParam(required = false) String to,
+                                                    @RequestParam(defaultValue = "false") boolean includeArchived,
+                                                    @RequestParam(required = false) String fields,
+                                                    WebRequest webRequest) {
+        TripFields selection = fields == null ? null : TripFields.parse(fields);
+        TripDateRange range = from == null && to == null ? null : TripDateRange.parse(from, to);
+        String eTag = businessTripRepository.findVersionStamp().toETag();
+        if (includeArchived) {
+            // The archive is append-only, its row count identifies its state
+            eTag = withETagSuffix(eTag, "a" + archivedTripRepository.count());
+        }
+        if (selection != null) {
+            eTag = withETagSuffix(eTag, selection.key());
+        }
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        TripListing.TripPage page = tripListing.list(
+                new TripListing.Query(range, limit, cursor, sort, view, includeArchived, selection), eTag);
+        ResponseEntity.BodyBuilder response = conditional(ResponseEntity.ok(), eTag);
+        if (page.next() != null) {
+            URI nextUri = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("cursor", page.next().encode())
+                    .replaceQueryParam("limit", page.trips().size())
+                    .replaceQueryParam("sort")
+                    .build().toUri();
+            response.header(HttpHeaders.LINK, "<" + nextUri + ">; rel=\"next\"");
+        }
+        return response.body(selectFields(page.trips(), selection));
+    }
+
+    /**
+     * Streams all trips as newline-delimited JSON. Rows are read through a forward-only
+     * database cursor in chunks and the meetings of a chunk are loaded with one query. Only
+     * projections are read, nothing accumulates in the persistence context, so memory use
+     * does not grow with the table size.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllTrips(@RequestParam(defaultValue = "full") String view) {
+        boolean withMeetings = !TripListing.VIEW_SUMMARY.equals(view);
+        StreamingResponseBody body = out -> readOnly(() -> {
+            try (Stream<TripRow> trips = businessTripRepository.streamAllRows()) {
+                List<TripRow> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+                Iterator<TripRow> it = trips.iterator();
+                while (it.hasNext()) {
+                    chunk.add(it.next());
+                    if (chunk.size() == STREAM_CHUNK_SIZE || !it.hasNext()) {
+                        for (BusinessTripDto dto : tripListing.toDtos(chunk, withMeetings)) {
+                            out.write(objectMapper.writeValueAsBytes(dto));
+                            out.write('\n');
+                        }
+                        chunk.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Full-text search over trip and meeting titles and descriptions. Every word of
+     * {@code q} must match, either exactly or as a prefix; umlauts may be written as
+     * {@code ue}, {@code u} or {@code ü}. Hits are ordered by relevance and list the
+     * matching meetings of each trip.
+     */
+    @GetMapping("/search")
+    public List<TripSearchHit> searchTrips(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        return tripSearchIndex.search(q, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
+    }
+
+    /**
+     * Trip and meeting counts, trips per start month and the average trip duration, served from
+     * counters maintained in memory.
+     */
+    @GetMapping("/stats")
+    public TripStats getTripStats() {
+        return tripStatistics.snapshot();
+    }
+
+    /**
+     * Server-Sent Events stream of trip and meeting changes ({@code trip-created},
+     * {@code trip-deleted}, {@code meeting-created}, {@code meeting-deleted}). Reconnecting
+     * clients send {@code Last-Event-ID} (or {@code lastEventId} where headers cannot be set)
+     * to receive what they missed; a {@code reset} event means they have to reload instead.
+     */
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventIdHeader,
+                                    @RequestParam(required = false) Long lastEventId) {
+        return tripChangeFeed.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
     }
 
+    /**
+     * A trip with its meetings. {@code fields} selects properties as on the list; without
+     * meetings, a trip that is not cached is read with only the requested columns.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<BusinessTripDto> getTripById(@PathVariable Long id) {
-        return businessTripRepository.findById(id)
-                .map(trip -> ResponseEntity.ok(convertTripToDto(trip)))
-                .orElseThrow(() -> new BusinessTripNotFoundException(id));
+    public ResponseEntity<?> getTripById(@PathVariable Long id,
+                                         @RequestParam(defaultValue = "false") boolean includeArchived,
+                                         @RequestParam(required = false) String fields,
+                                         WebRequest webRequest) {
+        TripFields selection = fields == null ? null : TripFields.parse(fields);
+        Versioned<BusinessTripDto> trip = selection == null || selection.withMeetings()
+                ? tripDtoCache.getTrip(id, this::loadTrip)
+                : findSparseTrip(id, selection);
+        if (trip == null && includeArchived) {
+            return getArchivedTrip(id, selection, webRequest);
+        }
+        if (trip == null) {
+            throw new BusinessTripNotFoundException(id);
+        }
+        String eTag = tripETag(id, trip.version());
+        if (selection != null) {
+            eTag = withETagSuffix(eTag, selection.key());
+        }
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return conditional(ResponseEntity.ok(), eTag).body(selectFields(trip.value(), selection));
     }
 
+    /**
+     * Creates a trip. With an {@code Idempotency-Key} header a retry returns the original
+     * response instead of creating another trip, see {@link IdempotencyStore}.
+     */
     @PostMapping
-    public ResponseEntity<BusinessTripDto> createTrip(@RequestBody BusinessTripDto tripDto) {
+    public ResponseEntity<BusinessTripDto> createTrip(@RequestBody BusinessTripDto tripDto,
+                                                      @RequestHeader(name = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute(idempotencyKey, "POST /v1/trips", tripDto, () -> saveTrip(tripDto));
+    }
+    
+    @GetMapping("/{tripId}/meetings")
+    public ResponseEntity<List<MeetingDto>> getMeetingsForTrip(@PathVariable Long tripId, WebRequest webRequest) {
+        Versioned<List<MeetingDto>> meetings = tripDtoCache.getMeetings(tripId, key -> readOnly(() -> businessTripRepository.findVersionById(key)
+                .map(version -> new Versioned<>(meetingRepository.findDtosByTripId(key), version))
+                .orElse(null)));
+        if (meetings == null) {
+            throw new BusinessTripNotFoundException(tripId);
+        }
+        String eTag = tripETag(tripId, meetings.version());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return conditional(ResponseEntity.ok(), eTag).body(meetings.value());
+    }
+    
+    /**
+     * Adds a meeting. With the write-behind queue enabled the meeting is queued instead and,
+     * depending on its durability setting, answered with 202 right away or with 201 once the
+     * batch it was written in has committed. {@code Idempotency-Key} is honoured as for
+     * {@link #createTrip}.
+     */
+    @PostMapping("/{tripId}/meetings")
+    public ResponseEntity<MeetingDto> addMeetingToTrip(@PathVariable Long tripId, @RequestBody MeetingDto meetingDto,
+                                                       @RequestHeader(name = IdempotencyStore.KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute(idempotencyKey, "POST /v1/trips/" + tripId + "/meetings", meetingDto,
+                () -> saveMeeting(tripId, meetingDto));
+    }
+
+    @GetMapping("/{tripId}/meetings/{meetingId}/status")
+    public MeetingWriteStatus getMeetingWriteStatus(@PathVariable Long tripId, @PathVariable Long meetingId) {
+        MeetingWriteStatus status = meetingWriteBehindQueue == null ? null : meetingWriteBehindQueue.status(meetingId);
+        if (status != null && tripId.equals(status.businessTripId())) {
+            return status;
+        }
+        // Written long enough ago for the status to have expired, or written synchronously
+        if (!meetingRepository.existsByIdAndBusinessTrip_Id(meetingId, tripId)) {
+            throw new MeetingNotFoundException(meetingId);
+        }
+        return MeetingWriteStatus.queued(meetingId, tripId).persisted();
+    }
+
+    /**
+     * Deletes a meeting of the trip with a single {@code DELETE ... where id = ? and trip = ?},
+     * so a meeting of another trip is answered with 404. {@code If-Match} is checked against the
+     * ETag of the trip's meeting list, see {@link #lockTrip}.
+     */
+    @DeleteMapping("/{tripId}/meetings/{meetingId}")
+    public ResponseEntity<Void> deleteMeetingFromTrip(@PathVariable Long tripId, @PathVariable Long meetingId,
+                                                      WebRequest webRequest) {
+        List<Long> expectedVersions = ifMatchVersions(webRequest, tripId);
+        transactionTemplate.executeWithoutResult(status -> {
+            lockTrip(tripId, expectedVersions);
+            if (meetingRepository.deleteByIdAndTripId(meetingId, tripId) == 0) {
+                throw new MeetingNotFoundException(meetingId);
+            }
+        });
+        eventPublisher.publishEvent(new TripChangeEvent.MeetingDeleted(tripId, meetingId));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Deletes a trip and its meetings with two set-based statements in one transaction instead
+     * of loading the trip and removing each meeting through the cascade. The trip is locked
+     * first, so a meeting added concurrently is either deleted with it or waits and then finds
+     * the trip gone. A preceding aggregate query reads what the
+     * {@link TripChangeEvent.TripDeleted} event reports.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteTrip(@PathVariable Long id, WebRequest webRequest) {
+        List<Long> expectedVersions = ifMatchVersions(webRequest, id);
+        List<TripDeletion> deleted = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            lockTrip(id, expectedVersions);
+            deleted.addAll(businessTripRepository.findDeletionsByIdIn(List.of(id)));
+            deleteTrips(deleted);
+        });
+        deleted.forEach(trip -> eventPublisher.publishEvent(trip.toEvent()));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Bulk delete, either of the trips listed in {@code ids} or of all trips lying entirely
+     * within {@code from}..{@code to} (same date formats as the range query; an omitted bound is
+     * open). Combining {@code ids} with a range is rejected with 400. Unknown ids are ignored.
+     * The trips are locked, then meetings and trips are removed with one {@code DELETE} each in
+     * a single transaction and the deleted row counts are returned.
+     */
+    @DeleteMapping
+    public TripDeleteReport deleteTrips(@RequestParam(required = false) List<Long> ids,
+                                        @RequestParam(required = false) String from,
+                                        @RequestParam(required = false) String to) {
+        boolean byIds = ids != null && !ids.isEmpty();
+        boolean byRange = from != null || to != null;
+        if (!byIds && !byRange) {
+            throw new MissingDeleteCriteriaException();
+        }
+        if (byIds && byRange) {
+            throw new AmbiguousDeleteCriteriaException();
+        }
+        TripDateRange range = TripDateRange.parse(from, to);
+
+        List<TripDeletion> deleted = new ArrayList<>();
+        TripDeleteReport report = transactionTemplate.execute(status -> {
+            // Locking the trips first keeps meetings from being added before they are deleted,
+            // and the events exact: only trips that existed are announced
+            List<Long> locked = byIds
+                    ? businessTripRepository.lockIdsByIdIn(ids)
+                    : businessTripRepository.lockIdsWithin(range.from(), range.to());
+            if (!locked.isEmpty()) {
+                deleted.addAll(businessTripRepository.findDeletionsByIdIn(locked));
+            }
+            return deleteTrips(deleted);
+        });
+        deleted.forEach(trip -> eventPublisher.publishEvent(trip.toEvent()));
+        return report;
+    }
+
+    /**
+     * Bumps the trip's version, which also locks its row until the transaction ends. With
+     * {@code If-Match} only the listed versions are bumped, so a change committed after the
+     * client read the trip fails the precondition and none can slip in before the delete.
+     *
+     * @param expectedVersions from {@link #ifMatchVersions}, {@code null} for no precondition
+     * @throws BusinessTripNotFoundException if the trip does not exist
+     * @throws TripModifiedException if it exists in another version
+     */
+    private void lockTrip(Long tripId, List<Long> expectedVersions) {
+        int updated = expectedVersions == null
+                ? businessTripRepository.incrementVersion(tripId)
+                : expectedVersions.isEmpty() ? 0 : businessTripRepository.incrementVersionIfIn(tripId, expectedVersions);
+        if (updated == 0) {
+            if (expectedVersions == null || businessTripRepository.findVersionById(tripId).isEmpty()) {
+                throw new BusinessTripNotFoundException(tripId);
+            }
+            throw new TripModifiedException(tripId);
+        }
+    }
+
+    // Meetings first, they reference the trips
+    private TripDeleteReport deleteTrips(List<TripDeletion> deletions) {
+        if (deletions.isEmpty()) {
+            return new TripDeleteReport(0, 0);
+        }
+        List<Long> ids = deletions.stream().map(TripDeletion::id).toList();
+        int meetings = meetingRepository.deleteByTripIdIn(ids);
+        int trips = businessTripRepository.deleteByIdIn(ids);
+        return new TripDeleteReport(trips, meetings);
+    }
+
+    private ResponseEntity<BusinessTripDto> saveTrip(BusinessTripDto tripDto) {
         BusinessTrip trip = new BusinessTrip();
         trip.setTitle(tripDto.title());
         trip.setDescription(tripDto.description());
@@ -52,79 +452,162 @@ public class BusinessTripController {
         // Meetings are not handled here to keep it simple, they can be added via the meeting endpoints
 
         BusinessTrip savedTrip = businessTripRepository.save(trip);
+        BusinessTripDto savedDto = TripMapper.convertTripToDto(savedTrip, List.of());
+        eventPublisher.publishEvent(new TripChangeEvent.TripCreated(savedDto));
 
         URI location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}")
                 .buildAndExpand(savedTrip.getId()).toUri();
 
-        return ResponseEntity.created(location).body(convertTripToDto(savedTrip));
+        return ResponseEntity.created(location)
+                .eTag(tripETag(savedTrip.getId(), savedTrip.getVersion()))
+                .body(savedDto);
     }
-    
-    @GetMapping("/{tripId}/meetings")
-    public ResponseEntity<List<MeetingDto>> getMeetingsForTrip(@PathVariable Long tripId) {
-        if (!businessTripRepository.existsById(tripId)) {
-            throw new BusinessTripNotFoundException(tripId);
+
+    private ResponseEntity<MeetingDto> saveMeeting(Long tripId, MeetingDto meetingDto) {
+        if (meetingWriteBehindQueue != null) {
+            return queueMeeting(tripId, meetingDto);
         }
-        List<MeetingDto> meetings = meetingRepository.findByBusinessTrip_Id(tripId).stream()
-                .map(this::convertMeetingToDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(meetings);
-    }
-    
-    @PostMapping("/{tripId}/meetings")
-    public ResponseEntity<MeetingDto> addMeetingToTrip(@PathVariable Long tripId, @RequestBody MeetingDto meetingDto) {
-        BusinessTrip trip = businessTripRepository.findById(tripId)
-                .orElseThrow(() -> new BusinessTripNotFoundException(tripId));
-
-        Meeting meeting = new Meeting();
-        meeting.setTitle(meetingDto.title());
-        meeting.setDescription(meetingDto.description());
-        meeting.setBusinessTrip(trip);
-        
-        Meeting savedMeeting = meetingRepository.save(meeting);
+        Meeting savedMeeting = transactionTemplate.execute(status -> {
+            if (businessTripRepository.incrementVersion(tripId) == 0) {
+                throw new BusinessTripNotFoundException(tripId);
+            }
+            Meeting meeting = new Meeting();
+            meeting.setTitle(meetingDto.title());
+            meeting.setDescription(meetingDto.description());
+            meeting.setBusinessTrip(businessTripRepository.getReferenceById(tripId));
+            return meetingRepository.save(meeting);
+        });
+        MeetingDto savedDto = TripMapper.convertMeetingToDto(savedMeeting);
+        eventPublisher.publishEvent(new TripChangeEvent.MeetingAdded(savedDto));
         
-        return ResponseEntity.created(URI.create("/v1/meetings/" + savedMeeting.getId())).body(convertMeetingToDto(savedMeeting));
+        return ResponseEntity.created(URI.create("/v1/meetings/" + savedMeeting.getId())).body(savedDto);
     }
 
-    @DeleteMapping("/{tripId}/meetings/{meetingId}")
-    public ResponseEntity<Void> deleteMeetingFromTrip(@PathVariable Long tripId, @PathVariable Long meetingId) {
-        if (!businessTripRepository.existsById(tripId)) {
-            throw new BusinessTripNotFoundException(tripId);
+    private ResponseEntity<MeetingDto> queueMeeting(Long tripId, MeetingDto meetingDto) {
+        MeetingWriteBehindQueue.QueuedMeeting queued = meetingWriteBehindQueue.submit(tripId, meetingDto);
+        Long meetingId = queued.meeting().id();
+        if (meetingWriteBehindQueue.durability() == MeetingWriteBehindQueue.Durability.GROUP_COMMIT) {
+            try {
+                MeetingWriteStatus status = queued.written().get(GROUP_COMMIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                if (status.state() == MeetingWriteStatus.State.PERSISTED) {
+                    return ResponseEntity.created(URI.create("/v1/meetings/" + meetingId)).body(queued.meeting());
+                }
+                if (!businessTripRepository.existsById(tripId)) {
+                    throw new BusinessTripNotFoundException(tripId);
+                }
+                throw new IllegalStateException("Writing meeting " + meetingId + " failed: " + status.error());
+            } catch (TimeoutException e) {
+                // Still queued: fall through and let the client poll the status like in memory mode
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
         }
-        if (!meetingRepository.existsById(meetingId)) {
-            throw new ch.clip.trips.ex.MeetingNotFoundException(meetingId);
+        URI statusUri = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}/status")
+                .buildAndExpand(meetingId).toUri();
+        return ResponseEntity.accepted().location(statusUri).body(queued.meeting());
+    }
+
+    /**
+     * ETags are weak: they identify the state of a trip, which is sent as JSON, CBOR or Smile
+     * and possibly gzip-compressed. Tomcat does not compress responses with a strong ETag.
+     */
+    private static String tripETag(Long tripId, long version) {
+        return "W/\"" + tripId + "-" + version + "\"";
+    }
+
+    /**
+     * Trip versions listed in {@code If-Match}, weak or strong, or {@code null} if the header is
+     * absent or {@code *}. ETags of other trips or in other formats are ignored, so an empty
+     * list never matches.
+     */
+    private static List<Long> ifMatchVersions(WebRequest webRequest, Long tripId) {
+        String header = webRequest.getHeader(HttpHeaders.IF_MATCH);
+        if (header == null || header.trim().equals("*")) {
+            return null;
         }
-        
-        meetingRepository.deleteById(meetingId);
-        return ResponseEntity.noContent().build();
+        String prefix = "\"" + tripId + "-";
+        List<Long> versions = new ArrayList<>();
+        for (String tag : header.split(",")) {
+            String opaque = tag.trim();
+            opaque = opaque.startsWith("W/") ? opaque.substring(2) : opaque;
+            if (opaque.startsWith(prefix) && opaque.endsWith("\"") && opaque.length() > prefix.length() + 1) {
+                try {
+                    versions.add(Long.parseLong(opaque.substring(prefix.length(), opaque.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // Not one of our ETags
+                }
+            }
+        }
+        return versions;
     }
 
+    // Distinguishes representations of the same state, e.g. with a fieldset
+    private static String withETagSuffix(String eTag, String suffix) {
+        return eTag.substring(0, eTag.length() - 1) + "-" + suffix + "\"";
+    }
 
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteTrip(@PathVariable Long id) {
-        if (!businessTripRepository.existsById(id)) {
-            throw new BusinessTripNotFoundException(id);
+    private static List<?> selectFields(List<BusinessTripDto> trips, TripFields fields) {
+        return fields == null ? trips : trips.stream().map(fields::select).toList();
+    }
+
+    private static Object selectFields(BusinessTripDto trip, TripFields fields) {
+        return fields == null ? trip : fields.select(trip);
+    }
+
+    private Versioned<BusinessTripDto> loadTrip(Long id) {
+        List<TripMeetingRow> rows = businessTripRepository.findRowWithMeetingsById(id);
+        if (rows.isEmpty()) {
+            return null;
         }
-        businessTripRepository.deleteById(id);
-        return ResponseEntity.noContent().build();
+        return detailMapping.record(() -> {
+            List<MeetingDto> meetings = new ArrayList<>(rows.size());
+            for (TripMeetingRow row : rows) {
+                if (row.meetingId() != null) {
+                    meetings.add(new MeetingDto(row.meetingId(), row.meetingTitle(), row.meetingDescription(), id));
+                }
+            }
+            TripRow tripRow = rows.get(0).trip();
+            return new Versioned<>(tripRow.toDto(meetings), tripRow.version());
+        });
     }
 
-    private BusinessTripDto convertTripToDto(BusinessTrip trip) {
-        return new BusinessTripDto(
-                trip.getId(),
-                trip.getTitle(),
-                trip.getDescription(),
-                trip.getStartTrip(),
-                trip.getEndTrip(),
-                trip.getMeetings().stream().map(this::convertMeetingToDto).collect(Collectors.toList())
-        );
+    // A cached trip has every field already; otherwise only the requested columns are read, uncached
+    private Versioned<BusinessTripDto> findSparseTrip(Long id, TripFields fields) {
+        Versioned<BusinessTripDto> cached = tripDtoCache.peekTrip(id);
+        if (cached != null) {
+            return cached;
+        }
+        List<TripRow> rows = readCoalescer.coalesce(TRIP_FIELDS_READ, List.of(id, fields.key()),
+                () -> readOnly(() -> businessTripRepository.findSparseRowsByIdIn(fields, List.of(id))));
+        return rows.isEmpty() ? null : new Versioned<>(rows.get(0).toDto(null), rows.get(0).version());
     }
 
-    private MeetingDto convertMeetingToDto(Meeting meeting) {
-        return new MeetingDto(
-                meeting.getId(),
-                meeting.getTitle(),
-                meeting.getDescription(),
-                meeting.getBusinessTrip().getId()
-        );
+    // Clients must revalidate, which is cheap thanks to the ETag; the body format depends on Accept
+    private static ResponseEntity.BodyBuilder conditional(ResponseEntity.BodyBuilder response, String eTag) {
+        return response.eTag(eTag).cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT);
     }
+
+    private ResponseEntity<?> getArchivedTrip(Long id, TripFields fields, WebRequest webRequest) {
+        ArchivedTrip archived = archivedTripRepository.findById(id)
+                .orElseThrow(() -> new BusinessTripNotFoundException(id));
+        // Archived trips never change
+        String eTag = "W/\"" + id + "-archived\"";
+        if (fields != null) {
+            eTag = withETagSuffix(eTag, fields.key());
+        }
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        BusinessTripDto trip = tripArchiver.toDto(archived, fields == null || fields.withMeetings());
+        return conditional(ResponseEntity.ok(), eTag).body(selectFields(trip, fields));
+    }
+
+    private <T> T readOnly(Supplier<T> action) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> action.get());
+    }
+
 }
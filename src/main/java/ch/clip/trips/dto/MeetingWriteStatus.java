@@ -0,0 +1,21 @@
+package ch.clip.trips.dto;
+
+/**
+ * Progress of a meeting accepted by the write-behind queue.
+ */
+public record MeetingWriteStatus(Long id, Long businessTripId, State state, String error) {
+
+    public enum State {QUEUED, PERSISTED, FAILED}
+
+    public static MeetingWriteStatus queued(Long id, Long businessTripId) {
+        return new MeetingWriteStatus(id, businessTripId, State.QUEUED, null);
+    }
+
+    public MeetingWriteStatus persisted() {
+        return new MeetingWriteStatus(id, businessTripId, State.PERSISTED, null);
+    }
+
+    public MeetingWriteStatus failed(String error) {
+        return new MeetingWriteStatus(id, businessTripId, State.FAILED, error);
+    }
+}
@@ -0,0 +1,44 @@
+package ch.clip.trips.dto;
+
+import ch.clip.trips.ex.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position for paging through trips. The token encodes the sort
+ * key of the last trip on a page, so the next page can continue with a
+ * {@code WHERE (startTrip, id) > (?, ?)} style predicate instead of an offset.
+ */
+public record TripCursor(TripSort sort, LocalDateTime startTrip, Long id) {
+
+    public enum TripSort {
+        ID, START_TRIP
+    }
+
+    public static TripCursor after(TripSort sort, BusinessTripDto last) {
+        return new TripCursor(sort, last.startTrip(), last.id());
+    }
+
+    public String encode() {
+        String raw = sort.name() + "|" + (startTrip == null ? "" : startTrip.toString()) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TripCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new InvalidCursorException(token);
+            }
+            TripSort sort = TripSort.valueOf(parts[0]);
+            LocalDateTime startTrip = parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]);
+            return new TripCursor(sort, startTrip, Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ch.clip.trips.dto;
+
+import ch.clip.trips.ex.InvalidDateRangeException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Inclusive date range of the list and bulk delete endpoints. Bounds are ISO dates or
+ * date-times; a bare date covers the whole day and an omitted bound is open.
+ */
+public record TripDateRange(LocalDateTime from, LocalDateTime to) {
+
+    static final LocalDateTime EARLIEST = LocalDateTime.of(1, 1, 1, 0, 0);
+    static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    /**
+     * @throws InvalidDateRangeException if a bound cannot be parsed or {@code from} is after {@code to}
+     */
+    public static TripDateRange parse(String from, String to) {
+        TripDateRange range = new TripDateRange(parseBound(from, false), parseBound(to, true));
+        if (range.from().isAfter(range.to())) {
+            throw new InvalidDateRangeException("from must not be after to");
+        }
+        return range;
+    }
+
+    // A bare date covers the whole day: from its start, or up to its end
+    private static LocalDateTime parseBound(String value, boolean upper) {
+        if (value == null) {
+            return upper ? LATEST : EARLIEST;
+        }
+        try {
+            if (value.length() == 10) {
+                LocalDate date = LocalDate.parse(value);
+                return upper ? date.atTime(23, 59, 59) : date.atStartOfDay();
+            }
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidDateRangeException("Invalid date " + value);
+        }
+    }
+}
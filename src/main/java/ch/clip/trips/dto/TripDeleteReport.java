@@ -0,0 +1,7 @@
+package ch.clip.trips.dto;
+
+public record TripDeleteReport(
+        int trips,
+        int meetings
+) {
+}
@@ -0,0 +1,102 @@
+package ch.clip.trips.dto;
+
+import ch.clip.trips.ex.InvalidFieldsException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse fieldset requested with {@code ?fields=title,startTrip}. Names are the JSON property
+ * names of {@link BusinessTripDto}; {@code id} is always included. The names of the scalar
+ * fields double as entity attribute names, so {@link #columns()} can be put into a query
+ * directly: only names from the fixed list below are ever accepted.
+ */
+public final class TripFields {
+
+    public static final String ID = "id";
+    public static final String MEETINGS = "meetings";
+    public static final String START_TRIP = "startTrip";
+    // In response order; all but id and meetings are columns of the trip table
+    private static final List<String> ALL = List.of(ID, "title", "description", START_TRIP, "endTrip", MEETINGS);
+
+    // Subset of ALL, same order
+    private final List<String> names;
+
+    private TripFields(List<String> names) {
+        this.names = names;
+    }
+
+    /**
+     * @throws InvalidFieldsException if a name is unknown
+     */
+    public static TripFields parse(String value) {
+        List<String> requested = new ArrayList<>();
+        for (String name : value.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty() && !ALL.contains(trimmed)) {
+                throw new InvalidFieldsException("Unknown field " + trimmed + ", expected any of " + ALL);
+            }
+            requested.add(trimmed);
+        }
+        return new TripFields(ALL.stream()
+                .filter(name -> name.equals(ID) || requested.contains(name))
+                .toList());
+    }
+
+    public boolean includes(String name) {
+        return names.contains(name);
+    }
+
+    public boolean withMeetings() {
+        return includes(MEETINGS);
+    }
+
+    /**
+     * The same fields plus {@code name}, e.g. a sort key the query needs but the client did
+     * not ask for.
+     */
+    public TripFields including(String name) {
+        if (includes(name)) {
+            return this;
+        }
+        return new TripFields(ALL.stream()
+                .filter(field -> field.equals(name) || names.contains(field))
+                .toList());
+    }
+
+    /**
+     * Trip columns to select besides the id.
+     */
+    public List<String> columns() {
+        return names.stream()
+                .filter(name -> !name.equals(ID) && !name.equals(MEETINGS))
+                .toList();
+    }
+
+    /**
+     * Identifies the fieldset in ETags, e.g. {@code id.title.startTrip}.
+     */
+    public String key() {
+        return String.join(".", names);
+    }
+
+    /**
+     * The requested fields of a trip, in declaration order; serialized in place of the DTO.
+     */
+    public Map<String, Object> select(BusinessTripDto trip) {
+        Map<String, Object> selected = new LinkedHashMap<>();
+        for (String name : names) {
+            selected.put(name, switch (name) {
+                case ID -> trip.id();
+                case "title" -> trip.title();
+                case "description" -> trip.description();
+                case START_TRIP -> trip.startTrip();
+                case "endTrip" -> trip.endTrip();
+                default -> trip.meetings();
+            });
+        }
+        return selected;
+    }
+}
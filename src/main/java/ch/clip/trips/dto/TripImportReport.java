@@ -0,0 +1,10 @@
+package ch.clip.trips.dto;
+
+import java.util.List;
+
+public record TripImportReport(
+        int created,
+        int failed,
+        List<TripImportResult> results
+) {
+}
@@ -0,0 +1,20 @@
+package ch.clip.trips.dto;
+
+public record TripImportResult(
+        int index,
+        Long id,
+        Status status,
+        String error
+) {
+    public enum Status {
+        CREATED, FAILED
+    }
+
+    public static TripImportResult created(int index, Long id) {
+        return new TripImportResult(index, id, Status.CREATED, null);
+    }
+
+    public static TripImportResult failed(int index, String error) {
+        return new TripImportResult(index, null, Status.FAILED, error);
+    }
+}
@@ -0,0 +1,9 @@
+package ch.clip.trips.dto;
+
+import java.util.List;
+
+public record TripLookupReport(
+        List<BusinessTripDto> trips,
+        List<Long> missing
+) {
+}
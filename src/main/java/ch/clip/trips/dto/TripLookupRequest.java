@@ -0,0 +1,8 @@
+package ch.clip.trips.dto;
+
+import java.util.List;
+
+public record TripLookupRequest(
+        List<Long> ids
+) {
+}
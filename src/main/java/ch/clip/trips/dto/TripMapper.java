@@ -0,0 +1,58 @@
+package ch.clip.trips.dto;
+
+import ch.clip.trips.model.BusinessTrip;
+import ch.clip.trips.model.Meeting;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conversions between the JPA entities and the API records.
+ */
+public final class TripMapper {
+
+    private TripMapper() {
+    }
+
+    /**
+     * @param meetings the trip's meetings, or {@code null} to leave them out of the DTO
+     */
+    public static BusinessTripDto convertTripToDto(BusinessTrip trip, List<Meeting> meetings) {
+        List<MeetingDto> meetingDtos = null;
+        if (meetings != null) {
+            meetingDtos = new ArrayList<>(meetings.size());
+            for (Meeting meeting : meetings) {
+                meetingDtos.add(convertMeetingToDto(meeting));
+            }
+        }
+        return new BusinessTripDto(
+                trip.getId(),
+                trip.getTitle(),
+                trip.getDescription(),
+                trip.getStartTrip(),
+                trip.getEndTrip(),
+                meetingDtos
+        );
+    }
+
+    public static MeetingDto convertMeetingToDto(Meeting meeting) {
+        return new MeetingDto(
+                meeting.getId(),
+                meeting.getTitle(),
+                meeting.getDescription(),
+                meeting.getBusinessTrip().getId()
+        );
+    }
+
+    public static BusinessTrip toEntity(BusinessTripDto dto) {
+        BusinessTrip trip = new BusinessTrip(dto.title(), dto.description(), dto.startTrip(), dto.endTrip());
+        if (dto.meetings() != null) {
+            List<Meeting> meetings = new ArrayList<>(dto.meetings().size());
+            for (MeetingDto meetingDto : dto.meetings()) {
+                meetings.add(new Meeting(meetingDto.title(), meetingDto.description(), trip));
+            }
+            trip.setMeetings(meetings);
+        }
+        return trip;
+    }
+}
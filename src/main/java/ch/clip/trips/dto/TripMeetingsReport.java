@@ -0,0 +1,10 @@
+package ch.clip.trips.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record TripMeetingsReport(
+        Map<Long, List<MeetingDto>> meetings,
+        List<Long> missing
+) {
+}
@@ -0,0 +1,11 @@
+package ch.clip.trips.dto;
+
+import java.util.List;
+
+public record TripSearchHit(
+        Long tripId,
+        String title,
+        double score,
+        List<Long> meetingIds
+) {
+}
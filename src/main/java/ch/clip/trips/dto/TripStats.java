@@ -0,0 +1,17 @@
+package ch.clip.trips.dto;
+
+import java.util.SortedMap;
+
+/**
+ * @param averageDurationHours average of {@code endTrip - startTrip} over trips with both dates,
+ *                             {@code null} if there are none
+ * @param tripsPerMonth        trip count per start month ({@code yyyy-MM})
+ */
+public record TripStats(
+        long trips,
+        long meetings,
+        double meetingsPerTrip,
+        Double averageDurationHours,
+        SortedMap<String, Long> tripsPerMonth
+) {
+}
@@ -0,0 +1,40 @@
+package ch.clip.trips.event;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.MeetingDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published after a change to a trip or its meetings has been committed. Caches and
+ * in-memory indexes listen for these to stay in sync with the database.
+ */
+public sealed interface TripChangeEvent {
+
+    Long tripId();
+
+    record TripCreated(BusinessTripDto trip) implements TripChangeEvent {
+        @Override
+        public Long tripId() {
+            return trip.id();
+        }
+    }
+
+    /**
+     * Carries the dates and meeting count the trip had when it was deleted, so aggregates
+     * can be updated without reading it again.
+     */
+    record TripDeleted(Long tripId, LocalDateTime startTrip, LocalDateTime endTrip, long meetings)
+            implements TripChangeEvent {
+    }
+
+    record MeetingAdded(MeetingDto meeting) implements TripChangeEvent {
+        @Override
+        public Long tripId() {
+            return meeting.businessTripId();
+        }
+    }
+
+    record MeetingDeleted(Long tripId, Long meetingId) implements TripChangeEvent {
+    }
+}
@@ -0,0 +1,210 @@
+package ch.clip.trips.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans out {@link TripChangeEvent}s to Server-Sent Events subscribers.
+ * <p>
+ * Every change gets a sequence number, which is sent as the SSE event id, and is kept in a
+ * ring buffer of the last {@code trips.changes.history-size} changes. A client that
+ * reconnects with {@code Last-Event-ID} gets the changes it missed replayed from there; if
+ * they are no longer buffered, or the id is from before a restart, it gets a {@code reset}
+ * event and must reload its data.
+ * <p>
+ * Publishing never blocks the writer: each subscriber has a bounded queue drained on its own
+ * virtual thread. When a queue is full, the {@code trips.changes.overflow} policy applies:
+ * {@code disconnect} closes the stream so that the client reconnects and resumes from the
+ * ring buffer, {@code drop} discards the queued changes and sends {@code reset} instead.
+ */
+@Component
+public class TripChangeFeed {
+    private static final Logger log = LoggerFactory.getLogger(TripChangeFeed.class);
+
+    public static final String RESET = "reset";
+
+    public enum OverflowPolicy {DISCONNECT, DROP}
+
+    private record Change(long id, TripChangeEvent event) {
+    }
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<Change> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean reset;
+
+        Subscriber(SseEmitter emitter, int capacity) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    private final Change[] history;
+    private final int subscriberBuffer;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration timeout;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("trip-changes-heartbeat").daemon().factory());
+    private final Counter overflows;
+    private long lastId;
+
+    public TripChangeFeed(@Value("${trips.changes.history-size:1000}") int historySize,
+                          @Value("${trips.changes.subscriber-buffer:256}") int subscriberBuffer,
+                          @Value("${trips.changes.overflow:disconnect}") OverflowPolicy overflowPolicy,
+                          @Value("${trips.changes.timeout:30m}") Duration timeout,
+                          @Value("${trips.changes.heartbeat:20s}") Duration heartbeatInterval,
+                          MeterRegistry meterRegistry) {
+        this.history = new Change[historySize];
+        this.subscriberBuffer = subscriberBuffer;
+        this.overflowPolicy = overflowPolicy;
+        this.timeout = timeout;
+        meterRegistry.gauge("trips.changes.subscribers", subscribers, Set::size);
+        this.overflows = Counter.builder("trips.changes.overflows")
+                .description("Subscribers whose buffer overflowed")
+                .tag("policy", overflowPolicy.name().toLowerCase())
+                .register(meterRegistry);
+        long interval = heartbeatInterval.toMillis();
+        heartbeat.scheduleAtFixedRate(this::sendHeartbeats, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens a stream of the changes after {@code lastEventId}, or of future changes only if
+     * it is {@code null}.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, subscriberBuffer);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        // Replay and registration under the publishing lock so that no change is missed or sent twice
+        synchronized (this) {
+            if (lastEventId != null) {
+                long oldest = Math.max(lastId - history.length + 1, 1);
+                if (lastEventId > lastId || lastEventId < oldest - 1) {
+                    subscriber.reset = true;
+                } else {
+                    for (long id = lastEventId + 1; id <= lastId; id++) {
+                        enqueue(subscriber, history[(int) (id % history.length)]);
+                    }
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @EventListener
+    public synchronized void onTripChange(TripChangeEvent event) {
+        Change change = new Change(++lastId, event);
+        history[(int) (change.id() % history.length)] = change;
+        for (Subscriber subscriber : subscribers) {
+            enqueue(subscriber, change);
+            schedule(subscriber);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdown();
+    }
+
+    private void enqueue(Subscriber subscriber, Change change) {
+        if (subscriber.queue.offer(change)) {
+            return;
+        }
+        overflows.increment();
+        if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+            log.debug("Change feed subscriber too slow, disconnecting");
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+            senders.execute(subscriber.emitter::complete);
+        } else {
+            subscriber.queue.clear();
+            subscriber.reset = true;
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.reset) {
+                subscriber.reset = false;
+                subscriber.emitter.send(SseEmitter.event().name(RESET).data("{}", MediaType.APPLICATION_JSON));
+            }
+            Change change;
+            while ((change = subscriber.queue.poll()) != null) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(Long.toString(change.id()))
+                        .name(eventName(change.event()))
+                        .data(change.event(), MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter completed; the completion callbacks clean up
+            subscribers.remove(subscriber);
+        } finally {
+            subscriber.draining.set(false);
+        }
+        if ((!subscriber.queue.isEmpty() || subscriber.reset) && subscribers.contains(subscriber)) {
+            schedule(subscriber);
+        }
+    }
+
+    // Comments keep idle connections open through proxies and reveal dead ones
+    private void sendHeartbeats() {
+        for (Subscriber subscriber : subscribers) {
+            senders.execute(() -> {
+                try {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(subscriber);
+                }
+            });
+        }
+    }
+
+    static String eventName(TripChangeEvent event) {
+        return switch (event) {
+            case TripChangeEvent.TripCreated created -> "trip-created";
+            case TripChangeEvent.TripDeleted deleted -> "trip-deleted";
+            case TripChangeEvent.MeetingAdded added -> "meeting-created";
+            case TripChangeEvent.MeetingDeleted deleted -> "meeting-deleted";
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package ch.clip.trips.ex;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class AmbiguousDeleteCriteriaException extends RuntimeException {
+    public AmbiguousDeleteCriteriaException() {
+        super("Bulk delete takes either ids or a from/to range, not both");
+    }
+}
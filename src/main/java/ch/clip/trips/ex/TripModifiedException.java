@@ -0,0 +1,11 @@
+package ch.clip.trips.ex;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.PRECONDITION_FAILED)
+public class TripModifiedException extends RuntimeException {
+    public TripModifiedException(Long id) {
+        super("Business trip " + id + " does not match If-Match");
+    }
+}
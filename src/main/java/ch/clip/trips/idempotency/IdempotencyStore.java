@@ -0,0 +1,127 @@
+package ch.clip.trips.idempotency;
+
+import ch.clip.trips.ex.IdempotencyKeyInProgressException;
+import ch.clip.trips.ex.IdempotencyKeyReusedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Responses of writes sent with an {@code Idempotency-Key} header, so that a retried request
+ * is answered with the original response instead of being executed again.
+ * <p>
+ * The first request with a key claims it by putting a pending future into the store and
+ * runs; duplicates arriving meanwhile wait for that future, so concurrent retries lead to a
+ * single insert. Successful responses stay for {@code trips.idempotency.expire-after-write};
+ * failures are removed so that the request can be retried. Replays carry
+ * {@value #REPLAYED_HEADER}{@code : true}. A key reused with a different request body is
+ * rejected with 422.
+ * <p>
+ * The store is bounded and kept in memory per instance: a retry reaching another instance,
+ * or arriving after eviction, is executed again.
+ */
+@Component
+public class IdempotencyStore {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final Cache<String, StoredRequest> requests;
+    private final long waitTimeoutNanos;
+    private final Counter replays;
+
+    public IdempotencyStore(@Value("${trips.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${trips.idempotency.expire-after-write:24h}") Duration expireAfterWrite,
+                            @Value("${trips.idempotency.wait-timeout:30s}") Duration waitTimeout,
+                            MeterRegistry meterRegistry) {
+        this.requests = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        this.replays = Counter.builder("trips.idempotency.replays")
+                .description("Writes answered from the idempotency store instead of being executed")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, requests, "idempotency");
+    }
+
+    /**
+     * Runs {@code write} once per key and scope and returns its response, or the stored one
+     * for a repeated key.
+     *
+     * @param key     the {@code Idempotency-Key} header, {@code null} to just run {@code write}
+     * @param scope   the endpoint, e.g. {@code POST /v1/trips/7/meetings}; a key is only
+     *                replayed within its scope
+     * @param request the request body, compared by {@code equals} with the one stored for the key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String key, String scope, Object request, Supplier<ResponseEntity<T>> write) {
+        if (key == null) {
+            return write.get();
+        }
+        StoredRequest claim = new StoredRequest(request, new CompletableFuture<>());
+        StoredRequest stored = requests.asMap().putIfAbsent(scope + " " + key, claim);
+        if (stored == null) {
+            return run(scope + " " + key, claim, write);
+        }
+        if (!Objects.equals(stored.request(), request)) {
+            throw new IdempotencyKeyReusedException(key);
+        }
+        ResponseEntity<T> response = (ResponseEntity<T>) await(key, stored.response());
+        replays.increment();
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    private <T> ResponseEntity<T> run(String storeKey, StoredRequest claim, Supplier<ResponseEntity<T>> write) {
+        ResponseEntity<T> response;
+        try {
+            response = write.get();
+        } catch (RuntimeException | Error e) {
+            // Not stored: waiting duplicates fail the same way, later retries run again
+            requests.asMap().remove(storeKey, claim);
+            claim.response().completeExceptionally(e);
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            requests.asMap().remove(storeKey, claim);
+        }
+        claim.response().complete(response);
+        return response;
+    }
+
+    private ResponseEntity<?> await(String key, CompletableFuture<ResponseEntity<?>> response) {
+        try {
+            return response.get(waitTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        }
+    }
+
+    private record StoredRequest(Object request, CompletableFuture<ResponseEntity<?>> response) {
+    }
+}
@@ -0,0 +1,54 @@
+package ch.clip.trips.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Splits text into lower-case terms. Umlauts are indexed in both common spellings so that
+ * "München", "Muenchen" and "Munchen" all find each other: every word yields its
+ * transliterated form (ä → ae, ß → ss) and, if different, its accent-stripped form (ä → a).
+ */
+public final class GermanTokenizer {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private GermanTokenizer() {
+    }
+
+    /**
+     * @return the words of {@code text}, each as the set of its indexable forms
+     */
+    public static List<Set<String>> words(String text) {
+        List<Set<String>> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.GERMAN))) {
+            if (!word.isEmpty()) {
+                words.add(forms(word));
+            }
+        }
+        return words;
+    }
+
+    static Set<String> forms(String word) {
+        Set<String> forms = new LinkedHashSet<>(2);
+        String transliterated = word.replace("ä", "ae").replace("ö", "oe").replace("ü", "ue").replace("ß", "ss");
+        forms.add(stripAccents(transliterated));
+        forms.add(stripAccents(word.replace("ß", "ss")));
+        return forms;
+    }
+
+    private static String stripAccents(String word) {
+        if (word.chars().allMatch(c -> c < 128)) {
+            return word;
+        }
+        return COMBINING_MARKS.matcher(Normalizer.normalize(word, Normalizer.Form.NFD)).replaceAll("");
+    }
+}
@@ -0,0 +1,98 @@
+package ch.clip.trips.index;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.event.TripChangeEvent;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.repo.TripInterval;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the travel periods of all trips in a {@link TripIntervalTree} so that date-range
+ * queries can find the matching trip ids without touching the database.
+ * <p>
+ * The tree is immutable; changes are collected in a map and the tree is rebuilt on the
+ * next query after a change. This suits the dashboard workload of many range queries and
+ * comparatively few writes. Enabled with {@code trips.interval-index.enabled=true};
+ * otherwise range queries are answered by the database indexes on the trip dates.
+ */
+@Component
+@ConditionalOnProperty(name = "trips.interval-index.enabled", havingValue = "true")
+public class TripIntervalIndex {
+    private static final Logger log = LoggerFactory.getLogger(TripIntervalIndex.class);
+
+    private final BusinessTripRepository businessTripRepository;
+    private final Map<Long, TripIntervalTree.Interval> intervals = new ConcurrentHashMap<>();
+    private volatile TripIntervalTree tree = TripIntervalTree.empty();
+    private volatile boolean dirty;
+
+    public TripIntervalIndex(BusinessTripRepository businessTripRepository) {
+        this.businessTripRepository = businessTripRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        List<TripInterval> loaded = businessTripRepository.findAllIntervals();
+        intervals.clear();
+        loaded.forEach(i -> put(i.tripId(), i.startTrip(), i.endTrip()));
+        synchronized (this) {
+            tree = TripIntervalTree.build(List.copyOf(intervals.values()));
+            dirty = false;
+        }
+        log.info("Interval index built: {} trips in {} ms", tree.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @EventListener
+    public void onTripChange(TripChangeEvent event) {
+        if (event instanceof TripChangeEvent.TripCreated created) {
+            BusinessTripDto trip = created.trip();
+            put(trip.id(), trip.startTrip(), trip.endTrip());
+            dirty = true;
+        } else if (event instanceof TripChangeEvent.TripDeleted deleted) {
+            if (intervals.remove(deleted.tripId()) != null) {
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * @return ids of the trips overlapping {@code [from, to]}, ordered by start and id
+     */
+    public List<Long> overlapping(LocalDateTime from, LocalDateTime to) {
+        return current().overlapping(epochSecond(from), epochSecond(to));
+    }
+
+    private TripIntervalTree current() {
+        if (dirty) {
+            synchronized (this) {
+                if (dirty) {
+                    // Clear first: a change arriving during the build marks the tree dirty again
+                    dirty = false;
+                    tree = TripIntervalTree.build(List.copyOf(intervals.values()));
+                }
+            }
+        }
+        return tree;
+    }
+
+    private void put(Long tripId, LocalDateTime start, LocalDateTime end) {
+        if (start != null && end != null) {
+            intervals.put(tripId, new TripIntervalTree.Interval(tripId, epochSecond(start), epochSecond(end)));
+        }
+    }
+
+    private static long epochSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
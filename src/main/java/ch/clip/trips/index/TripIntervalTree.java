@@ -0,0 +1,101 @@
+package ch.clip.trips.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable augmented interval tree over trip travel periods.
+ * <p>
+ * Intervals are sorted by start and laid out as an implicit balanced binary search tree
+ * (the middle element of every range is its root). Each node additionally stores the
+ * largest end of its subtree, so an overlap query skips every subtree that ends before
+ * the range and every right subtree that starts after it. A query visits
+ * O(log n + k) nodes for k results.
+ */
+public final class TripIntervalTree {
+
+    public record Interval(long tripId, long start, long end) {
+    }
+
+    private static final TripIntervalTree EMPTY = new TripIntervalTree(new long[0], new long[0], new long[0]);
+
+    private final long[] ids;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    private TripIntervalTree(long[] ids, long[] starts, long[] ends) {
+        this.ids = ids;
+        this.starts = starts;
+        this.ends = ends;
+        this.maxEnds = new long[ids.length];
+        if (ids.length > 0) {
+            computeMaxEnds(0, ids.length - 1);
+        }
+    }
+
+    public static TripIntervalTree empty() {
+        return EMPTY;
+    }
+
+    public static TripIntervalTree build(Collection<Interval> intervals) {
+        Interval[] sorted = intervals.toArray(new Interval[0]);
+        Arrays.sort(sorted, Comparator.comparingLong(Interval::start).thenComparingLong(Interval::tripId));
+        long[] ids = new long[sorted.length];
+        long[] starts = new long[sorted.length];
+        long[] ends = new long[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            ids[i] = sorted[i].tripId();
+            starts[i] = sorted[i].start();
+            ends[i] = sorted[i].end();
+        }
+        return new TripIntervalTree(ids, starts, ends);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return the ids of all trips with {@code start <= to} and {@code end >= from},
+     * ordered by start and then id
+     */
+    public List<Long> overlapping(long from, long to) {
+        List<Long> result = new ArrayList<>();
+        if (ids.length > 0) {
+            collect(0, ids.length - 1, from, to, result);
+        }
+        return result;
+    }
+
+    // In-order traversal keeps the results sorted by start
+    private void collect(int lo, int hi, long from, long to, List<Long> result) {
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (maxEnds[mid] < from) {
+                return;
+            }
+            collect(lo, mid - 1, from, to, result);
+            if (starts[mid] > to) {
+                return;
+            }
+            if (ends[mid] >= from) {
+                result.add(ids[mid]);
+            }
+            lo = mid + 1;
+        }
+    }
+
+    private long computeMaxEnds(int lo, int hi) {
+        if (lo > hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(computeMaxEnds(lo, mid - 1), computeMaxEnds(mid + 1, hi)));
+        maxEnds[mid] = max;
+        return max;
+    }
+}
@@ -0,0 +1,325 @@
+package ch.clip.trips.index;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.MeetingDto;
+import ch.clip.trips.dto.TripSearchHit;
+import ch.clip.trips.event.TripChangeEvent;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.repo.MeetingRepository;
+import ch.clip.trips.repo.TripRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over trip and meeting titles and descriptions.
+ * <p>
+ * Every trip and every meeting is a document. The term dictionary is sorted, so a query
+ * word matches both the exact term and, at a lower weight, terms it is a prefix of. Hits
+ * are scored with a TF-IDF sum (title matches count more than descriptions, meeting
+ * matches less than trip matches), aggregated per trip, and every query word must match
+ * the trip or one of its meetings. The index is built from the database on startup and
+ * kept current through {@link TripChangeEvent}s.
+ * <p>
+ * {@code TripSearchBenchmark} measures queries over a synthetic corpus of up to one million
+ * meetings.
+ */
+@Component
+public class TripSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(TripSearchIndex.class);
+
+    static final float TITLE_WEIGHT = 3f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+    static final float MEETING_WEIGHT = 0.5f;
+    static final double PREFIX_WEIGHT = 0.5;
+    static final int MAX_PREFIX_EXPANSION = 64;
+    // Bounds the work for queries made only of very common words; their hits are then incomplete
+    static final int MAX_SCORED_POSTINGS = 10_000;
+
+    // meetingId 0 denotes the trip itself; sequence ids start at 1
+    private record Doc(long tripId, long meetingId) {
+    }
+
+    private record TermMatch(Map<Doc, Float> docs, double weight) {
+    }
+
+    private final NavigableMap<String, Map<Doc, Float>> postings = new TreeMap<>();
+    private final Map<Doc, Set<String>> termsByDoc = new HashMap<>();
+    private final Map<Long, Set<Long>> meetingsByTrip = new HashMap<>();
+    private final Map<Long, String> titles = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final BusinessTripRepository businessTripRepository;
+    private final MeetingRepository meetingRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public TripSearchIndex(BusinessTripRepository businessTripRepository, MeetingRepository meetingRepository,
+                           PlatformTransactionManager transactionManager) {
+        this.businessTripRepository = businessTripRepository;
+        this.meetingRepository = meetingRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            termsByDoc.clear();
+            meetingsByTrip.clear();
+            titles.clear();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<TripRow> trips = businessTripRepository.streamAllRows()) {
+                    trips.forEach(trip -> indexTrip(trip.toDto(null)));
+                }
+                try (Stream<MeetingDto> meetings = meetingRepository.streamAllDtos()) {
+                    meetings.forEach(this::indexMeeting);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index built: {} documents, {} terms in {} ms", termsByDoc.size(), postings.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @EventListener
+    public void onTripChange(TripChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            switch (event) {
+                case TripChangeEvent.TripCreated created -> indexTrip(created.trip());
+                case TripChangeEvent.TripDeleted deleted -> removeTrip(deleted.tripId());
+                case TripChangeEvent.MeetingAdded added -> indexMeeting(added.meeting());
+                case TripChangeEvent.MeetingDeleted deleted -> removeDoc(new Doc(deleted.tripId(), deleted.meetingId()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Words are evaluated from the one with the fewest postings to the one with the most. The
+     * first is scored by scanning its postings, at most {@value #MAX_SCORED_POSTINGS} of them;
+     * later words only need to be checked against the trips still in the running, so when
+     * those have fewer documents than the word has postings, their documents are probed
+     * instead of scanning the postings of a frequent word.
+     */
+    public List<TripSearchHit> search(String query, int limit) {
+        List<Set<String>> words = GermanTokenizer.words(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            double documentCount = Math.max(termsByDoc.size(), 1);
+            List<List<TermMatch>> matches = new ArrayList<>(words.size());
+            for (Set<String> forms : words) {
+                matches.add(expand(forms, documentCount));
+            }
+            matches.sort(Comparator.comparingLong(TripSearchIndex::postingCount));
+
+            Map<Long, Double> tripScores = null;
+            for (List<TermMatch> word : matches) {
+                Map<Doc, Double> docScores = tripScores == null
+                        ? scan(word, MAX_SCORED_POSTINGS)
+                        : postingCount(word) > documentCount(tripScores.keySet())
+                        ? probe(word, tripScores.keySet())
+                        : scan(word, Integer.MAX_VALUE);
+
+                Map<Long, Double> wordScores = new HashMap<>();
+                docScores.forEach((doc, score) -> wordScores.merge(doc.tripId(), score, Double::sum));
+                if (tripScores == null) {
+                    tripScores = wordScores;
+                } else {
+                    tripScores.keySet().retainAll(wordScores.keySet());
+                    tripScores.replaceAll((tripId, score) -> score + wordScores.get(tripId));
+                }
+                if (tripScores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return tripScores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .limit(limit)
+                    .map(e -> new TripSearchHit(e.getKey(), titles.get(e.getKey()), e.getValue(),
+                            matchedMeetings(e.getKey(), matches)))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return termsByDoc.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // The exact terms and prefix expansions of one query word with their weights
+    private List<TermMatch> expand(Set<String> forms, double documentCount) {
+        List<TermMatch> matches = new ArrayList<>();
+        for (String form : forms) {
+            int expanded = 0;
+            for (Map.Entry<String, Map<Doc, Float>> entry
+                    : postings.subMap(form, true, form + Character.MAX_VALUE, false).entrySet()) {
+                if (expanded++ == MAX_PREFIX_EXPANSION) {
+                    break;
+                }
+                double idf = Math.log(1 + documentCount / entry.getValue().size());
+                matches.add(new TermMatch(entry.getValue(), entry.getKey().equals(form) ? idf : idf * PREFIX_WEIGHT));
+            }
+        }
+        return matches;
+    }
+
+    private static long postingCount(List<TermMatch> word) {
+        long count = 0;
+        for (TermMatch match : word) {
+            count += match.docs().size();
+        }
+        return count;
+    }
+
+    // Different forms of one word may hit the same document; the best match counts once
+    private static Map<Doc, Double> scan(List<TermMatch> word, int maxPostings) {
+        Map<Doc, Double> docScores = new HashMap<>();
+        int scanned = 0;
+        for (TermMatch match : word) {
+            for (Map.Entry<Doc, Float> posting : match.docs().entrySet()) {
+                if (scanned++ == maxPostings) {
+                    return docScores;
+                }
+                docScores.merge(posting.getKey(), match.weight() * posting.getValue(), Math::max);
+            }
+        }
+        return docScores;
+    }
+
+    private Map<Doc, Double> probe(List<TermMatch> word, Set<Long> tripIds) {
+        Map<Doc, Double> docScores = new HashMap<>();
+        for (Long tripId : tripIds) {
+            probe(word, new Doc(tripId, 0), docScores);
+            for (Long meetingId : meetingsByTrip.getOrDefault(tripId, Set.of())) {
+                probe(word, new Doc(tripId, meetingId), docScores);
+            }
+        }
+        return docScores;
+    }
+
+    private static void probe(List<TermMatch> word, Doc doc, Map<Doc, Double> docScores) {
+        for (TermMatch match : word) {
+            Float tf = match.docs().get(doc);
+            if (tf != null) {
+                docScores.merge(doc, match.weight() * tf, Math::max);
+            }
+        }
+    }
+
+    // Only worked out for the hits returned: meetings matching any of the query words
+    private List<Long> matchedMeetings(Long tripId, List<List<TermMatch>> words) {
+        Set<Long> matched = new TreeSet<>();
+        for (Long meetingId : meetingsByTrip.getOrDefault(tripId, Set.of())) {
+            Doc doc = new Doc(tripId, meetingId);
+            if (words.stream().flatMap(List::stream).anyMatch(match -> match.docs().containsKey(doc))) {
+                matched.add(meetingId);
+            }
+        }
+        return List.copyOf(matched);
+    }
+
+    // The trip documents plus those of their meetings
+    private long documentCount(Set<Long> tripIds) {
+        long count = tripIds.size();
+        for (Long tripId : tripIds) {
+            count += meetingsByTrip.getOrDefault(tripId, Set.of()).size();
+        }
+        return count;
+    }
+
+    private void indexTrip(BusinessTripDto trip) {
+        titles.put(trip.id(), trip.title() == null ? "" : trip.title());
+        addDoc(new Doc(trip.id(), 0), trip.title(), trip.description(), 1f);
+        if (trip.meetings() != null) {
+            trip.meetings().forEach(this::indexMeeting);
+        }
+    }
+
+    private void indexMeeting(MeetingDto meeting) {
+        meetingsByTrip.computeIfAbsent(meeting.businessTripId(), k -> new HashSet<>()).add(meeting.id());
+        addDoc(new Doc(meeting.businessTripId(), meeting.id()), meeting.title(), meeting.description(), MEETING_WEIGHT);
+    }
+
+    private void addDoc(Doc doc, String title, String description, float boost) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, title, TITLE_WEIGHT * boost);
+        addField(weights, description, DESCRIPTION_WEIGHT * boost);
+        removeDoc(doc);
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, k -> new HashMap<>()).put(doc, weight));
+        termsByDoc.put(doc, weights.keySet());
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float weight) {
+        for (Set<String> forms : GermanTokenizer.words(text)) {
+            for (String form : forms) {
+                weights.merge(form, weight, Float::sum);
+            }
+        }
+    }
+
+    private void removeTrip(Long tripId) {
+        removeDoc(new Doc(tripId, 0));
+        Set<Long> meetings = meetingsByTrip.remove(tripId);
+        if (meetings != null) {
+            new ArrayList<>(meetings).forEach(meetingId -> removeDoc(new Doc(tripId, meetingId)));
+        }
+        titles.remove(tripId);
+    }
+
+    private void removeDoc(Doc doc) {
+        Set<String> terms = termsByDoc.remove(doc);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Doc, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(doc);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        if (doc.meetingId() != 0) {
+            Set<Long> meetings = meetingsByTrip.get(doc.tripId());
+            if (meetings != null) {
+                meetings.remove(doc.meetingId());
+            }
+        }
+    }
+
+}
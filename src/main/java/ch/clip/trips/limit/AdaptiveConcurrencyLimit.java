@@ -0,0 +1,121 @@
+package ch.clip.trips.limit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limit on concurrently handled trip requests that follows database latency (AIMD). Every
+ * repository invocation feeds a moving average of its duration; while the average is above
+ * {@code trips.load-shedding.latency-threshold} the limit shrinks by 10%, at most once per
+ * {@code trips.load-shedding.backoff-interval}, so a short spike costs one step rather than
+ * collapsing the limit. Otherwise each invocation lets a busy limit grow by one, always
+ * staying between the configured minimum and maximum. Requests beyond the limit are shed by
+ * {@link LoadSheddingFilter}.
+ * <p>
+ * Published as the gauges {@code trips.concurrency.limit}, {@code trips.concurrency.in-flight}
+ * and {@code trips.concurrency.db-latency}.
+ */
+@Component
+@ConditionalOnProperty(name = "trips.load-shedding.enabled", havingValue = "true")
+public class AdaptiveConcurrencyLimit implements RepositoryMethodInvocationListener {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long thresholdNanos;
+    private final long backoffIntervalNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+    // guarded by this
+    private double averageNanos;
+    // guarded by this; System.nanoTime() of the last decrease
+    private long decreasedAt;
+    private boolean decreased;
+
+    public AdaptiveConcurrencyLimit(@Value("${trips.load-shedding.min-limit:10}") int minLimit,
+                                    @Value("${trips.load-shedding.max-limit:200}") int maxLimit,
+                                    @Value("${trips.load-shedding.latency-threshold:250ms}") Duration threshold,
+                                    @Value("${trips.load-shedding.backoff-interval:1s}") Duration backoffInterval,
+                                    MeterRegistry meterRegistry) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.thresholdNanos = threshold.toNanos();
+        this.backoffIntervalNanos = backoffInterval.toNanos();
+        this.limit = maxLimit;
+        Gauge.builder("trips.concurrency.limit", this, AdaptiveConcurrencyLimit::limit)
+                .description("Current limit on concurrently handled trip requests")
+                .register(meterRegistry);
+        Gauge.builder("trips.concurrency.in-flight", inFlight, AtomicInteger::get)
+                .description("Trip requests currently being handled")
+                .register(meterRegistry);
+        Gauge.builder("trips.concurrency.db-latency", this, concurrency -> concurrency.averageLatency() / 1_000_000d)
+                .description("Moving average of repository invocation time")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claims a slot for a request; {@link #release()} must follow once it has been handled.
+     *
+     * @return false if the limit is reached
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void afterInvocation(RepositoryMethodInvocation invocation) {
+        recordLatency(invocation.getDuration(TimeUnit.NANOSECONDS));
+    }
+
+    public void recordLatency(long nanos) {
+        recordLatency(nanos, System.nanoTime());
+    }
+
+    /**
+     * @param now the {@link System#nanoTime()} at which the invocation finished
+     */
+    public synchronized void recordLatency(long nanos, long now) {
+        averageNanos = averageNanos == 0 ? nanos : averageNanos + SMOOTHING * (nanos - averageNanos);
+        if (averageNanos > thresholdNanos) {
+            if (!decreased || now - decreasedAt >= backoffIntervalNanos) {
+                limit = Math.max(minLimit, (int) (limit * BACKOFF));
+                decreasedAt = now;
+                decreased = true;
+            }
+        } else if (limit < maxLimit && inFlight.get() * 2 >= limit) {
+            // Only grow while the current limit is actually being used
+            limit++;
+        }
+    }
+
+    private synchronized double averageLatency() {
+        return averageNanos;
+    }
+}
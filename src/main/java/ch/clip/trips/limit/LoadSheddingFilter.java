@@ -0,0 +1,58 @@
+package ch.clip.trips.limit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Sheds trip requests with 503 and {@code Retry-After} while the {@link AdaptiveConcurrencyLimit}
+ * is reached. Runs after {@link RateLimitFilter}, so requests over a client's budget never take
+ * a slot. A streamed or event-stream response releases its slot when the handler returns.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 11)
+@ConditionalOnProperty(name = "trips.load-shedding.enabled", havingValue = "true")
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final Duration retryAfter;
+    private final RejectedRequests rejectedRequests;
+
+    public LoadSheddingFilter(AdaptiveConcurrencyLimit concurrencyLimit,
+                              @Value("${trips.load-shedding.retry-after:1s}") Duration retryAfter,
+                              RejectedRequests rejectedRequests) {
+        this.concurrencyLimit = concurrencyLimit;
+        this.retryAfter = retryAfter;
+        this.rejectedRequests = rejectedRequests;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !RejectedRequests.isTripRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!concurrencyLimit.tryAcquire()) {
+            rejectedRequests.reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, "overload", retryAfter);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            concurrencyLimit.release();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ch.clip.trips.limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Token-bucket rate limit per client address in front of the trip endpoints, with separate
+ * budgets for reads ({@code GET}, {@code HEAD}, {@code OPTIONS}) and writes, so a client
+ * polling the trip list cannot use up its own write budget or anyone else's. Requests over
+ * budget get 429 with {@code Retry-After}.
+ * <p>
+ * The client is identified by {@link HttpServletRequest#getRemoteAddr()}; behind a proxy set
+ * {@code server.forward-headers-strategy} so it reflects {@code X-Forwarded-For}. Buckets of
+ * clients idle for {@code trips.rate-limit.idle-expiry} are dropped, which refills them.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "trips.rate-limit.enabled", havingValue = "true")
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final Cache<String, ClientBudget> clients;
+    private final double readCapacity;
+    private final double readRefill;
+    private final double writeCapacity;
+    private final double writeRefill;
+    private final RejectedRequests rejectedRequests;
+
+    public RateLimitFilter(@Value("${trips.rate-limit.read.capacity:100}") double readCapacity,
+                           @Value("${trips.rate-limit.read.refill-per-second:50}") double readRefill,
+                           @Value("${trips.rate-limit.write.capacity:20}") double writeCapacity,
+                           @Value("${trips.rate-limit.write.refill-per-second:10}") double writeRefill,
+                           @Value("${trips.rate-limit.max-clients:100000}") long maxClients,
+                           @Value("${trips.rate-limit.idle-expiry:10m}") Duration idleExpiry,
+                           RejectedRequests rejectedRequests) {
+        this.readCapacity = readCapacity;
+        this.readRefill = readRefill;
+        this.writeCapacity = writeCapacity;
+        this.writeRefill = writeRefill;
+        this.rejectedRequests = rejectedRequests;
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !RejectedRequests.isTripRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.nanoTime();
+        ClientBudget budget = clients.get(request.getRemoteAddr(), client -> new ClientBudget(
+                new TokenBucket(readCapacity, readRefill, now),
+                new TokenBucket(writeCapacity, writeRefill, now)));
+        TokenBucket bucket = RejectedRequests.isRead(request) ? budget.reads() : budget.writes();
+        long waitNanos = bucket.tryTake(now);
+        if (waitNanos > 0) {
+            rejectedRequests.reject(request, response, HttpStatus.TOO_MANY_REQUESTS, "rate-limit",
+                    Duration.ofNanos(waitNanos));
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private record ClientBudget(TokenBucket reads, TokenBucket writes) {
+    }
+}
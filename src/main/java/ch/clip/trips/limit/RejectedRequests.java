@@ -0,0 +1,62 @@
+package ch.clip.trips.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Answers requests turned away by {@link RateLimitFilter} or {@link LoadSheddingFilter} and
+ * counts them as {@code trips.requests.rejected}, tagged with the reason
+ * ({@code rate-limit}, {@code overload}) and the operation ({@code read}, {@code write}).
+ */
+@Component
+public class RejectedRequests {
+
+    static final String METRIC = "trips.requests.rejected";
+
+    private final MeterRegistry meterRegistry;
+
+    public RejectedRequests(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Trip requests that these filters apply to; the batch endpoints ({@code /v1/trips:batch})
+     * are included.
+     */
+    static boolean isTripRequest(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/v1/trips");
+    }
+
+    /**
+     * Safe methods, plus {@code POST /v1/trips:lookup}, which only reads but takes its ids in the
+     * body.
+     */
+    static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)
+                || request.getRequestURI().endsWith(":lookup");
+    }
+
+    void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String reason,
+                Duration retryAfter) throws IOException {
+        Counter.builder(METRIC)
+                .description("Trip requests rejected by rate limiting or load shedding")
+                .tag("reason", reason)
+                .tag("operation", isRead(request) ? "read" : "write")
+                .register(meterRegistry)
+                .increment();
+        // Retry-After is given in whole seconds, rounded up
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        response.sendError(status.value(), status.getReasonPhrase());
+    }
+}
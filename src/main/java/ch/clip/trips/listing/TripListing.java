@@ -0,0 +1,251 @@
+package ch.clip.trips.listing;
+
+import ch.clip.trips.archive.TripArchiver;
+import ch.clip.trips.cache.ReadCoalescer;
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.MeetingDto;
+import ch.clip.trips.dto.TripCursor;
+import ch.clip.trips.dto.TripCursor.TripSort;
+import ch.clip.trips.dto.TripDateRange;
+import ch.clip.trips.dto.TripFields;
+import ch.clip.trips.index.TripIntervalIndex;
+import ch.clip.trips.model.ArchivedTrip;
+import ch.clip.trips.repo.ArchivedTripRepository;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.repo.MeetingRepository;
+import ch.clip.trips.repo.TripRow;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the trip list of {@code GET /v1/trips} in one of three modes: the trips overlapping
+ * a date range ordered by start, a keyset page, or all trips. In each mode the archive can be
+ * merged in, in the same order, and a fieldset narrows the columns that are read.
+ * <p>
+ * Only projections are read, in a read-only transaction; the meetings of all listed trips are
+ * loaded with one {@code IN} query per {@value #MEETING_BATCH_SIZE} trips. Concurrent identical
+ * requests that saw the same version stamp share a single read, see {@link ReadCoalescer}.
+ */
+@Component
+public class TripListing {
+
+    public static final String VIEW_SUMMARY = "summary";
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MEETING_BATCH_SIZE = 1000;
+    static final String TRIP_LIST_READ = "tripList";
+    static final Comparator<BusinessTripDto> BY_ID = Comparator.comparing(BusinessTripDto::id);
+    static final Comparator<BusinessTripDto> BY_START_TRIP = Comparator.comparing(BusinessTripDto::startTrip,
+            Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(BusinessTripDto::id);
+
+    /**
+     * What to list. {@code range} is {@code null} for no date restriction; without
+     * {@code limit} and {@code cursor} all trips are listed. {@code fields} takes precedence
+     * over {@code view} and is {@code null} for all properties.
+     */
+    public record Query(TripDateRange range, Integer limit, String cursor, String sort, String view,
+                        boolean includeArchived, TripFields fields) {
+
+        boolean withMeetings() {
+            return fields != null ? fields.withMeetings() : !VIEW_SUMMARY.equals(view);
+        }
+    }
+
+    /**
+     * Listed trips with all properties; {@code next} is the position after the last one when
+     * a page came back full, {@code null} otherwise.
+     */
+    public record TripPage(List<BusinessTripDto> trips, TripCursor next) {
+    }
+
+    private final BusinessTripRepository businessTripRepository;
+    private final MeetingRepository meetingRepository;
+    private final ArchivedTripRepository archivedTripRepository;
+    private final TripArchiver tripArchiver;
+    private final ReadCoalescer readCoalescer;
+    private final TripIntervalIndex tripIntervalIndex;
+    private final TransactionTemplate readOnly;
+    private final Timer summaryMapping;
+    private final Timer fullMapping;
+
+    public TripListing(BusinessTripRepository businessTripRepository,
+                       MeetingRepository meetingRepository,
+                       ArchivedTripRepository archivedTripRepository,
+                       TripArchiver tripArchiver,
+                       ReadCoalescer readCoalescer,
+                       ObjectProvider<TripIntervalIndex> tripIntervalIndex,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry) {
+        this.businessTripRepository = businessTripRepository;
+        this.meetingRepository = meetingRepository;
+        this.archivedTripRepository = archivedTripRepository;
+        this.tripArchiver = tripArchiver;
+        this.readCoalescer = readCoalescer;
+        this.tripIntervalIndex = tripIntervalIndex.getIfAvailable();
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.summaryMapping = mappingTimer(VIEW_SUMMARY, meterRegistry);
+        this.fullMapping = mappingTimer("full", meterRegistry);
+    }
+
+    /**
+     * @param versionStamp the state of the trips the caller has seen, it keys shared reads
+     */
+    public TripPage list(Query query, String versionStamp) {
+        TripFields fields = query.fields();
+        List<Object> readKey = Arrays.asList(versionStamp, query.range(), query.limit(), query.cursor(), query.sort(),
+                query.view(), query.includeArchived(), fields == null ? null : fields.key());
+        boolean withMeetings = query.withMeetings();
+        if (query.range() != null) {
+            TripDateRange range = query.range();
+            // Merging with the archive compares start dates
+            TripFields queried = fields == null ? null : fields.including(TripFields.START_TRIP);
+            return new TripPage(read(readKey, () -> withArchived(
+                    toDtos(findOverlapping(range, queried), withMeetings),
+                    query.includeArchived() ? archivedTripRepository.findOverlapping(range.from(), range.to()) : null,
+                    BY_START_TRIP, withMeetings, Integer.MAX_VALUE)), null);
+        }
+        if (query.limit() == null && query.cursor() == null) {
+            return new TripPage(read(readKey, () -> withArchived(
+                    toDtos(fields == null
+                            ? businessTripRepository.findAllRows()
+                            : businessTripRepository.findSparseRowsAfterId(fields, 0L, Limit.unlimited()), withMeetings),
+                    query.includeArchived() ? archivedTripRepository.findAllOrderById() : null,
+                    BY_ID, withMeetings, Integer.MAX_VALUE)), null);
+        }
+
+        int pageSize = Math.min(Math.max(query.limit() == null ? DEFAULT_PAGE_SIZE : query.limit(), 1), MAX_PAGE_SIZE);
+        TripCursor position = query.cursor() == null ? null : TripCursor.decode(query.cursor());
+        TripSort sort = position != null ? position.sort()
+                : "startTrip".equals(query.sort()) ? TripSort.START_TRIP : TripSort.ID;
+
+        // The next cursor and the archive merge need the sort key
+        TripFields queried = fields == null || sort == TripSort.ID ? fields : fields.including(TripFields.START_TRIP);
+        // Both tiers return their first pageSize trips after the cursor, so the merged head is the page
+        List<BusinessTripDto> page = read(readKey, () -> withArchived(
+                toDtos(findPage(sort, position, pageSize, queried), withMeetings),
+                query.includeArchived() ? findArchivedPage(sort, position, pageSize) : null,
+                sort == TripSort.ID ? BY_ID : BY_START_TRIP, withMeetings, pageSize));
+        return new TripPage(page, page.size() == pageSize ? TripCursor.after(sort, page.get(page.size() - 1)) : null);
+    }
+
+    /**
+     * Converts a batch of trips, loading the meetings of all of them with one
+     * {@code IN} query per {@value #MEETING_BATCH_SIZE} trips instead of one query per trip.
+     * Runs in the caller's transaction.
+     */
+    public List<BusinessTripDto> toDtos(List<TripRow> trips, boolean withMeetings) {
+        if (!withMeetings) {
+            return summaryMapping.record(() -> trips.stream()
+                    .map(trip -> trip.toDto(null))
+                    .collect(Collectors.toList()));
+        }
+        Map<Long, List<MeetingDto>> meetingsByTrip = new HashMap<>();
+        List<Long> tripIds = trips.stream().map(TripRow::id).collect(Collectors.toList());
+        for (int from = 0; from < tripIds.size(); from += MEETING_BATCH_SIZE) {
+            List<Long> batch = tripIds.subList(from, Math.min(from + MEETING_BATCH_SIZE, tripIds.size()));
+            for (MeetingDto meeting : meetingRepository.findDtosByTripIdIn(batch)) {
+                meetingsByTrip.computeIfAbsent(meeting.businessTripId(), k -> new ArrayList<>()).add(meeting);
+            }
+        }
+        return fullMapping.record(() -> trips.stream()
+                .map(trip -> trip.toDto(meetingsByTrip.getOrDefault(trip.id(), List.of())))
+                .collect(Collectors.toList()));
+    }
+
+    private List<BusinessTripDto> read(List<Object> readKey, Supplier<List<BusinessTripDto>> load) {
+        return readCoalescer.coalesce(TRIP_LIST_READ, readKey, () -> readOnly.execute(status -> load.get()));
+    }
+
+    // fields is null to select all columns
+    private List<TripRow> findOverlapping(TripDateRange range, TripFields fields) {
+        if (tripIntervalIndex == null) {
+            return fields == null
+                    ? businessTripRepository.findOverlapping(range.from(), range.to())
+                    : businessTripRepository.findSparseOverlapping(fields, range.from(), range.to());
+        }
+        List<Long> ids = tripIntervalIndex.overlapping(range.from(), range.to());
+        Map<Long, TripRow> trips = new HashMap<>(ids.size() * 2);
+        for (int offset = 0; offset < ids.size(); offset += MEETING_BATCH_SIZE) {
+            List<Long> batch = ids.subList(offset, Math.min(offset + MEETING_BATCH_SIZE, ids.size()));
+            (fields == null ? businessTripRepository.findRowsByIdIn(batch) : businessTripRepository.findSparseRowsByIdIn(fields, batch))
+                    .forEach(trip -> trips.put(trip.id(), trip));
+        }
+        // Keep the index order; ids deleted since the index was read are skipped
+        return ids.stream().map(trips::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private List<TripRow> findPage(TripSort sort, TripCursor position, int pageSize, TripFields fields) {
+        Limit limit = Limit.of(pageSize);
+        if (fields != null) {
+            return sort == TripSort.ID
+                    ? businessTripRepository.findSparseRowsAfterId(fields, position == null ? 0L : position.id(), limit)
+                    : businessTripRepository.findSparseRowsByStartTrip(fields, position == null ? null : position.startTrip(),
+                    position == null ? null : position.id(), limit);
+        }
+        if (sort == TripSort.ID) {
+            return businessTripRepository.findRowPageAfterId(position == null ? 0L : position.id(), limit);
+        }
+        if (position == null) {
+            return businessTripRepository.findFirstRowPageByStartTrip(limit);
+        }
+        if (position.startTrip() == null) {
+            return businessTripRepository.findRowPageWithoutStartTripAfter(position.id(), limit);
+        }
+        return businessTripRepository.findRowPageByStartTripAfter(position.startTrip(), position.id(), limit);
+    }
+
+    private List<ArchivedTrip> findArchivedPage(TripSort sort, TripCursor position, int pageSize) {
+        Limit limit = Limit.of(pageSize);
+        if (sort == TripSort.ID) {
+            return archivedTripRepository.findPageAfterId(position == null ? 0L : position.id(), limit);
+        }
+        if (position == null) {
+            return archivedTripRepository.findFirstPageByStartTrip(limit);
+        }
+        if (position.startTrip() == null) {
+            return archivedTripRepository.findPageWithoutStartTripAfter(position.id(), limit);
+        }
+        return archivedTripRepository.findPageByStartTripAfter(position.startTrip(), position.id(), limit);
+    }
+
+    /**
+     * Merges archived trips into active ones, both already sorted by {@code order}.
+     *
+     * @param archived {@code null} when the archive is not requested
+     */
+    private List<BusinessTripDto> withArchived(List<BusinessTripDto> active, List<ArchivedTrip> archived,
+                                               Comparator<BusinessTripDto> order, boolean withMeetings, int limit) {
+        if (archived == null || archived.isEmpty()) {
+            return active;
+        }
+        List<BusinessTripDto> merged = new ArrayList<>(active.size() + archived.size());
+        merged.addAll(active);
+        archived.forEach(trip -> merged.add(tripArchiver.toDto(trip, withMeetings)));
+        merged.sort(order);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    // Times DTO assembly only; the queries feeding it are timed as repository invocations
+    public static Timer mappingTimer(String view, MeterRegistry meterRegistry) {
+        return Timer.builder("trips.mapping")
+                .description("Time to convert entities to DTOs")
+                .tag("view", view)
+                .register(meterRegistry);
+    }
+}
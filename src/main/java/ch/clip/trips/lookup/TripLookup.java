@@ -0,0 +1,187 @@
+package ch.clip.trips.lookup;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.MeetingDto;
+import ch.clip.trips.dto.TripLookupReport;
+import ch.clip.trips.dto.TripMeetingsReport;
+import ch.clip.trips.ex.InvalidLookupException;
+import ch.clip.trips.metrics.QueryCounter;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.repo.MeetingRepository;
+import ch.clip.trips.repo.TripRow;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Resolves many trip ids at once for {@code GET /v1/trips/meetings} and
+ * {@code POST /v1/trips:lookup}, instead of one request per trip.
+ * <p>
+ * The ids are split into chunks of {@code trips.lookup.chunk-size}; each chunk is read with
+ * {@code IN} queries in its own read-only transaction. Chunks run in parallel on virtual
+ * threads, at most {@code trips.lookup.parallelism} at a time across all lookups, so large
+ * lookups leave connections in the pool for other requests. A lookup that fits into one chunk
+ * runs on the calling thread. Since every chunk is its own transaction, a lookup is not a
+ * consistent snapshot of trips changed while it runs.
+ */
+@Component
+public class TripLookup {
+
+    private final BusinessTripRepository businessTripRepository;
+    private final MeetingRepository meetingRepository;
+    private final TransactionTemplate readOnly;
+    private final int chunkSize;
+    private final int maxIds;
+    private final Semaphore connections;
+    private final ExecutorService chunkReaders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public TripLookup(BusinessTripRepository businessTripRepository,
+                      MeetingRepository meetingRepository,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${trips.lookup.chunk-size:500}") int chunkSize,
+                      @Value("${trips.lookup.parallelism:4}") int parallelism,
+                      @Value("${trips.lookup.max-ids:10000}") int maxIds) {
+        this.businessTripRepository = businessTripRepository;
+        this.meetingRepository = meetingRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.maxIds = maxIds;
+        this.connections = new Semaphore(Math.max(parallelism, 1));
+    }
+
+    /**
+     * Trips including their meetings, in the order of {@code ids}. Duplicate ids are answered
+     * once; unknown ones are listed as missing.
+     */
+    public TripLookupReport trips(List<Long> ids) {
+        List<Long> requested = distinct(ids);
+        Map<Long, TripRow> trips = new HashMap<>(requested.size() * 2);
+        Map<Long, List<MeetingDto>> meetings = new HashMap<>(requested.size() * 2);
+        for (Chunk<TripRow> chunk : readChunks(requested, businessTripRepository::findRowsByIdIn)) {
+            chunk.trips().forEach(trip -> trips.put(trip.id(), trip));
+            group(chunk.meetings(), meetings);
+        }
+
+        List<BusinessTripDto> found = new ArrayList<>(trips.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            TripRow trip = trips.get(id);
+            if (trip == null) {
+                missing.add(id);
+            } else {
+                found.add(trip.toDto(meetings.getOrDefault(id, List.of())));
+            }
+        }
+        return new TripLookupReport(found, missing);
+    }
+
+    /**
+     * Meetings grouped by trip, in the order of {@code ids}. Trips without meetings map to an
+     * empty list; unknown ones are listed as missing.
+     */
+    public TripMeetingsReport meetings(List<Long> ids) {
+        List<Long> requested = distinct(ids);
+        Map<Long, List<MeetingDto>> meetings = new HashMap<>(requested.size() * 2);
+        List<Long> existing = new ArrayList<>(requested.size());
+        for (Chunk<Long> chunk : readChunks(requested, businessTripRepository::findIdsByIdIn)) {
+            existing.addAll(chunk.trips());
+            group(chunk.meetings(), meetings);
+        }
+
+        LinkedHashSet<Long> found = new LinkedHashSet<>(existing);
+        Map<Long, List<MeetingDto>> byTrip = new LinkedHashMap<>(found.size() * 2);
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            if (found.contains(id)) {
+                byTrip.put(id, meetings.getOrDefault(id, List.of()));
+            } else {
+                missing.add(id);
+            }
+        }
+        return new TripMeetingsReport(byTrip, missing);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        chunkReaders.shutdown();
+    }
+
+    private List<Long> distinct(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new InvalidLookupException("At least one trip id is required");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidLookupException("Trip ids must not be null");
+        }
+        List<Long> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinct.size() > maxIds) {
+            throw new InvalidLookupException("At most " + maxIds + " trip ids per lookup, got " + distinct.size());
+        }
+        return distinct;
+    }
+
+    private <T> List<Chunk<T>> readChunks(List<Long> ids, Function<List<Long>, List<T>> findTrips) {
+        if (ids.size() <= chunkSize) {
+            return List.of(readChunk(ids, findTrips));
+        }
+        List<CompletableFuture<Chunk<T>>> pending = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+            pending.add(CompletableFuture.supplyAsync(QueryCounter.propagate(() -> {
+                connections.acquireUninterruptibly();
+                try {
+                    return readChunk(chunk, findTrips);
+                } finally {
+                    connections.release();
+                }
+            }), chunkReaders));
+        }
+        List<Chunk<T>> chunks = new ArrayList<>(pending.size());
+        try {
+            for (CompletableFuture<Chunk<T>> chunk : pending) {
+                chunks.add(chunk.join());
+            }
+        } catch (CompletionException e) {
+            // Surface the repository exception itself, as a sequential read would
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return chunks;
+    }
+
+    // The meetings query is skipped when none of the chunk's trips exist
+    private <T> Chunk<T> readChunk(List<Long> ids, Function<List<Long>, List<T>> findTrips) {
+        return readOnly.execute(status -> {
+            List<T> trips = findTrips.apply(ids);
+            return new Chunk<>(trips, trips.isEmpty() ? List.of() : meetingRepository.findDtosByTripIdIn(ids));
+        });
+    }
+
+    private static void group(List<MeetingDto> meetings, Map<Long, List<MeetingDto>> byTrip) {
+        for (MeetingDto meeting : meetings) {
+            byTrip.computeIfAbsent(meeting.businessTripId(), id -> new ArrayList<>()).add(meeting);
+        }
+    }
+
+    private record Chunk<T>(List<T> trips, List<MeetingDto> meetings) {
+    }
+}
@@ -0,0 +1,47 @@
+package ch.clip.trips.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Counts the SQL statements of the current request. {@link StatementCountingDataSource}
+ * increments the counter of the thread that prepares a statement, so JPA and
+ * {@code JdbcTemplate} statements are both included. {@link RequestQueryCountFilter} starts a
+ * fresh counter when a request begins and reads it when the request ends; work the request
+ * hands to other threads is included when wrapped with {@link #propagate(Supplier)}.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<AtomicLong> COUNT = ThreadLocal.withInitial(AtomicLong::new);
+
+    private QueryCounter() {
+    }
+
+    public static void reset() {
+        COUNT.set(new AtomicLong());
+    }
+
+    public static long current() {
+        return COUNT.get().get();
+    }
+
+    static void increment() {
+        COUNT.get().incrementAndGet();
+    }
+
+    /**
+     * Runs {@code task} against the calling thread's counter, wherever it is executed.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        AtomicLong count = COUNT.get();
+        return () -> {
+            AtomicLong previous = COUNT.get();
+            COUNT.set(count);
+            try {
+                return task.get();
+            } finally {
+                COUNT.set(previous);
+            }
+        };
+    }
+}
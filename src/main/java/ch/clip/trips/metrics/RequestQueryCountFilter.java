@@ -0,0 +1,54 @@
+package ch.clip.trips.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request executed as the {@code trips.request.queries}
+ * distribution, tagged like {@code http.server.requests} with method and URI template.
+ * Statements of lookup chunks read in parallel are included. Statements run after the request
+ * thread is released, such as the body of a streamed response, or by the meeting write-behind
+ * writer are not attributed to any request.
+ */
+@Component
+public class RequestQueryCountFilter extends OncePerRequestFilter {
+
+    static final String METRIC = "trips.request.queries";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestQueryCountFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryCounter.reset();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            DistributionSummary.builder(METRIC)
+                    .description("SQL statements executed per request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uriTemplate(request))
+                    .register(meterRegistry)
+                    .record(QueryCounter.current());
+        }
+    }
+
+    static String uriTemplate(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
@@ -0,0 +1,47 @@
+package ch.clip.trips.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+
+/**
+ * Times writing a response body as {@code trips.serialization}, tagged with the output
+ * format and the URI template of the request. Shared by the timed Jackson converters.
+ */
+final class SerializationTimer {
+
+    static final String METRIC = "trips.serialization";
+
+    @FunctionalInterface
+    interface Write {
+        void run() throws IOException;
+    }
+
+    private SerializationTimer() {
+    }
+
+    static void time(MeterRegistry meterRegistry, String format, Write write) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            write.run();
+        } finally {
+            sample.stop(Timer.builder(METRIC)
+                    .description("Time to serialize response bodies")
+                    .tag("format", format)
+                    .tag("uri", currentUriTemplate())
+                    .register(meterRegistry));
+        }
+    }
+
+    private static String currentUriTemplate() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            return RequestQueryCountFilter.uriTemplate(request);
+        }
+        return "UNKNOWN";
+    }
+}
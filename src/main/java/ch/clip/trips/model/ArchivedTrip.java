@@ -0,0 +1,76 @@
+package ch.clip.trips.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A completed trip moved out of the active tables by the archival job. Rows are written once
+ * and never updated: the trip keeps its id, and its meetings are stored with it as a JSON
+ * array so reading an archived trip takes a single row.
+ */
+@Entity
+@Immutable
+@Table(indexes = @Index(name = "idx_archived_trip_start_end", columnList = "startTrip, endTrip"))
+public class ArchivedTrip implements Persistable<Long> {
+	@Id
+	private Long id;
+	private String title;
+	private String description;
+	private LocalDateTime startTrip;
+	private LocalDateTime endTrip;
+	private LocalDateTime archivedAt;
+	@Lob
+	private String meetingsJson;
+
+	protected ArchivedTrip() {
+	}
+
+	public ArchivedTrip(Long id, String title, String description, LocalDateTime startTrip, LocalDateTime endTrip,
+						LocalDateTime archivedAt, String meetingsJson) {
+		this.id = id;
+		this.title = title;
+		this.description = description;
+		this.startTrip = startTrip;
+		this.endTrip = endTrip;
+		this.archivedAt = archivedAt;
+		this.meetingsJson = meetingsJson;
+	}
+
+	@Override
+	public Long getId() {
+		return id;
+	}
+
+	// Append-only: always insert, so saving does not select the row first
+	@Override
+	public boolean isNew() {
+		return true;
+	}
+
+	public String getTitle() {
+		return title;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public LocalDateTime getStartTrip() {
+		return startTrip;
+	}
+
+	public LocalDateTime getEndTrip() {
+		return endTrip;
+	}
+
+	public LocalDateTime getArchivedAt() {
+		return archivedAt;
+	}
+
+	public String getMeetingsJson() {
+		return meetingsJson;
+	}
+}
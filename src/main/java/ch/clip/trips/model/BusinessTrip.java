@@ -2,6 +2,7 @@ package ch.clip.trips.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -9,16 +10,26 @@ import java.util.List;
 import java.util.Objects;
 
 @Entity
+// Range scans for date-overlap queries; the end column is included so the second predicate is checked in the index
+@Table(indexes = {
+		@Index(name = "idx_business_trip_start_end", columnList = "startTrip, endTrip"),
+		@Index(name = "idx_business_trip_end", columnList = "endTrip")
+})
 public class BusinessTrip {
+	// Pooled sequence ids let Hibernate batch inserts, which IDENTITY columns prevent
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "business_trip_seq")
+	@SequenceGenerator(name = "business_trip_seq", sequenceName = "business_trip_seq", allocationSize = 50)
 	private Long id;
+	@Version
+	private Long version;
 	private String title;
 	private String description;
 	private LocalDateTime startTrip;
 	private LocalDateTime endTrip;
 
-	@OneToMany(mappedBy = "businessTrip", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+	@OneToMany(mappedBy = "businessTrip", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+	@BatchSize(size = 100)
 	@JsonManagedReference
 	private List<Meeting> meetings = new ArrayList<>();
 
@@ -40,6 +51,14 @@ public class BusinessTrip {
 		this.id = id;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public String getTitle() {
 		return title;
 	}
@@ -0,0 +1,40 @@
+package ch.clip.trips.repo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import ch.clip.trips.model.ArchivedTrip;
+
+/**
+ * Reads of the cold tier, mirroring the list, keyset and range queries of
+ * {@link BusinessTripRepository} so results of both tiers can be merged.
+ */
+@Transactional(readOnly = true)
+public interface ArchivedTripRepository extends JpaRepository<ArchivedTrip, Long> {
+
+	@Query("select a from ArchivedTrip a order by a.id asc")
+	List<ArchivedTrip> findAllOrderById();
+
+	@Query("select a from ArchivedTrip a where a.id > :id order by a.id asc")
+	List<ArchivedTrip> findPageAfterId(@Param("id") Long id, Limit limit);
+
+	@Query("select a from ArchivedTrip a order by a.startTrip asc nulls last, a.id asc")
+	List<ArchivedTrip> findFirstPageByStartTrip(Limit limit);
+
+	@Query("select a from ArchivedTrip a where a.startTrip > :startTrip"
+			+ " or (a.startTrip = :startTrip and a.id > :id) or a.startTrip is null"
+			+ " order by a.startTrip asc nulls last, a.id asc")
+	List<ArchivedTrip> findPageByStartTripAfter(@Param("startTrip") LocalDateTime startTrip, @Param("id") Long id, Limit limit);
+
+	@Query("select a from ArchivedTrip a where a.startTrip is null and a.id > :id order by a.id asc")
+	List<ArchivedTrip> findPageWithoutStartTripAfter(@Param("id") Long id, Limit limit);
+
+	@Query("select a from ArchivedTrip a where a.startTrip <= :to and a.endTrip >= :from order by a.startTrip asc, a.id asc")
+	List<ArchivedTrip> findOverlapping(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
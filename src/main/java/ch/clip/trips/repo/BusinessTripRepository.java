@@ -1,11 +1,132 @@
 package ch.clip.trips.repo;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import ch.clip.trips.model.BusinessTrip;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+/**
+ * Read queries select {@link TripRow} projections: no entities are hydrated, so there is no
+ * persistence-context or dirty-checking work, and they run in read-only transactions.
+ */
+@Transactional(readOnly = true)
+public interface BusinessTripRepository extends JpaRepository<BusinessTrip, Long>, SparseTripQueries {
+	String TRIP_ROW = "select new ch.clip.trips.repo.TripRow(t.id, t.version, t.title, t.description, t.startTrip, t.endTrip)"
+			+ " from BusinessTrip t";
 
-public interface BusinessTripRepository extends JpaRepository<BusinessTrip, Long> {
 	List<BusinessTrip> findByTitle(String title);
+
+	@Query(TRIP_ROW + " order by t.id asc")
+	List<TripRow> findAllRows();
+
+	@Query(TRIP_ROW + " where t.id in :ids")
+	List<TripRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Query("select t.id from BusinessTrip t where t.id in :ids")
+	List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+	// Detail view: trip and meetings in a single join query
+	@Query("select new ch.clip.trips.repo.TripMeetingRow(t.id, t.version, t.title, t.description, t.startTrip, t.endTrip,"
+			+ " m.id, m.title, m.description) from BusinessTrip t left join t.meetings m where t.id = :id order by m.id asc")
+	List<TripMeetingRow> findRowWithMeetingsById(@Param("id") Long id);
+
+	@Query("select t.version from BusinessTrip t where t.id = :id")
+	Optional<Long> findVersionById(@Param("id") Long id);
+
+	@Query("select new ch.clip.trips.repo.TripVersionStamp(count(t), max(t.id), sum(t.version)) from BusinessTrip t")
+	TripVersionStamp findVersionStamp();
+
+	// Marks the trip as changed when one of its meetings is added or removed; returns 0 for unknown trips
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update BusinessTrip t set t.version = t.version + 1 where t.id = :id")
+	int incrementVersion(@Param("id") Long id);
+
+	// Conditional form for If-Match: only bumps the version if it is one of the expected ones
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("update BusinessTrip t set t.version = t.version + 1 where t.id = :id and t.version in :versions")
+	int incrementVersionIfIn(@Param("id") Long id, @Param("versions") Collection<Long> versions);
+
+	// Lock the trips to delete like incrementVersion does, in id order so bulk deletes cannot deadlock
+	@Transactional
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select t.id from BusinessTrip t where t.id in :ids order by t.id asc")
+	List<Long> lockIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Transactional
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select t.id from BusinessTrip t where t.startTrip >= :from and t.endTrip <= :to order by t.id asc")
+	List<Long> lockIdsWithin(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	// Set-based deletes: meetings have to be removed first, see MeetingRepository
+	String TRIP_DELETION = "select new ch.clip.trips.repo.TripDeletion(t.id, t.startTrip, t.endTrip, count(m))"
+			+ " from BusinessTrip t left join t.meetings m";
+
+	@Query(TRIP_DELETION + " where t.id in :ids group by t.id, t.startTrip, t.endTrip order by t.id asc")
+	List<TripDeletion> findDeletionsByIdIn(@Param("ids") Collection<Long> ids);
+
+	// Aggregates for reconciling the in-memory statistics
+	@Query("select new ch.clip.trips.repo.TripTotals(count(t),"
+			+ " sum(case when t.startTrip is not null and t.endTrip is not null then 1 else 0 end),"
+			+ " sum((t.endTrip - t.startTrip) by second)) from BusinessTrip t")
+	TripTotals findTotals();
+
+	@Query("select new ch.clip.trips.repo.TripMonthCount(year(t.startTrip), month(t.startTrip), count(t))"
+			+ " from BusinessTrip t where t.startTrip is not null group by year(t.startTrip), month(t.startTrip)")
+	List<TripMonthCount> countPerStartMonth();
+
+	// Candidates for archival, oldest ids first
+	@Query(TRIP_ROW + " where t.endTrip < :before order by t.id asc")
+	List<TripRow> findRowPageEndedBefore(@Param("before") LocalDateTime before, Limit limit);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("delete from BusinessTrip t where t.id in :ids")
+	int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+	// Keyset pages ordered by id
+	@Query(TRIP_ROW + " where t.id > :id order by t.id asc")
+	List<TripRow> findRowPageAfterId(@Param("id") Long id, Limit limit);
+
+	// Keyset pages ordered by (startTrip, id); trips without a start date come last
+	@Query(TRIP_ROW + " order by t.startTrip asc nulls last, t.id asc")
+	List<TripRow> findFirstRowPageByStartTrip(Limit limit);
+
+	@Query(TRIP_ROW + " where t.startTrip > :startTrip"
+			+ " or (t.startTrip = :startTrip and t.id > :id) or t.startTrip is null"
+			+ " order by t.startTrip asc nulls last, t.id asc")
+	List<TripRow> findRowPageByStartTripAfter(@Param("startTrip") LocalDateTime startTrip, @Param("id") Long id, Limit limit);
+
+	@Query(TRIP_ROW + " where t.startTrip is null and t.id > :id order by t.id asc")
+	List<TripRow> findRowPageWithoutStartTripAfter(@Param("id") Long id, Limit limit);
+
+	// Trips whose travel period overlaps [from, to]; trips without start or end never match
+	@Query(TRIP_ROW + " where t.startTrip <= :to and t.endTrip >= :from order by t.startTrip asc, t.id asc")
+	List<TripRow> findOverlapping(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@Query("select new ch.clip.trips.repo.TripInterval(t.id, t.startTrip, t.endTrip) from BusinessTrip t"
+			+ " where t.startTrip is not null and t.endTrip is not null")
+	List<TripInterval> findAllIntervals();
+
+	// Must be consumed inside a transaction and closed afterwards
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query(TRIP_ROW + " order by t.id asc")
+	Stream<TripRow> streamAllRows();
 }
@@ -1,11 +1,57 @@
 package ch.clip.trips.repo;
 
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import ch.clip.trips.dto.MeetingDto;
 import ch.clip.trips.model.Meeting;
+import jakarta.persistence.QueryHint;
 
+@Transactional(readOnly = true)
 public interface MeetingRepository extends JpaRepository<Meeting, Long> {
+	String MEETING_DTO = "select new ch.clip.trips.dto.MeetingDto(m.id, m.title, m.description, m.businessTrip.id)"
+			+ " from Meeting m";
+
 	List<Meeting> findByBusinessTrip_Id(Long businessTripId);
-}
\ No newline at end of file
+
+	List<Meeting> findByBusinessTrip_IdInOrderByIdAsc(Collection<Long> businessTripIds);
+
+	boolean existsByIdAndBusinessTrip_Id(Long id, Long businessTripId);
+
+	@Query(MEETING_DTO + " where m.businessTrip.id = :tripId order by m.id asc")
+	List<MeetingDto> findDtosByTripId(@Param("tripId") Long tripId);
+
+	@Query(MEETING_DTO + " where m.businessTrip.id in :tripIds order by m.id asc")
+	List<MeetingDto> findDtosByTripIdIn(@Param("tripIds") Collection<Long> tripIds);
+
+	// Set-based deletes without loading the meetings; return the number of deleted rows
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("delete from Meeting m where m.id = :id and m.businessTrip.id = :tripId")
+	int deleteByIdAndTripId(@Param("id") Long id, @Param("tripId") Long tripId);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("delete from Meeting m where m.id in :ids")
+	int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
+	@Transactional
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("delete from Meeting m where m.businessTrip.id in :tripIds")
+	int deleteByTripIdIn(@Param("tripIds") Collection<Long> tripIds);
+
+	// Must be consumed inside a transaction and closed afterwards
+	@QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+	@Query(MEETING_DTO + " order by m.id asc")
+	Stream<MeetingDto> streamAllDtos();
+}
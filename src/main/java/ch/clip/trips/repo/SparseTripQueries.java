@@ -0,0 +1,26 @@
+package ch.clip.trips.repo;
+
+import ch.clip.trips.dto.TripFields;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Variants of the {@link TripRow} queries that select only the columns of a
+ * {@link TripFields} selection, besides id and version. Columns left out are {@code null} in
+ * the returned rows.
+ */
+public interface SparseTripQueries {
+
+    // Keyset pages ordered by id; Limit.unlimited() for all trips
+    List<TripRow> findSparseRowsAfterId(TripFields fields, Long id, Limit limit);
+
+    // Keyset pages ordered by (startTrip, id), trips without a start date last; afterStartTrip and afterId may be null
+    List<TripRow> findSparseRowsByStartTrip(TripFields fields, LocalDateTime afterStartTrip, Long afterId, Limit limit);
+
+    List<TripRow> findSparseOverlapping(TripFields fields, LocalDateTime from, LocalDateTime to);
+
+    List<TripRow> findSparseRowsByIdIn(TripFields fields, Collection<Long> ids);
+}
@@ -0,0 +1,76 @@
+package ch.clip.trips.repo;
+
+import ch.clip.trips.dto.TripFields;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the select list from {@link TripFields#columns()}, which only ever contains known
+ * attribute names; everything else in the statements is fixed.
+ */
+class SparseTripQueriesImpl implements SparseTripQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TripRow> findSparseRowsAfterId(TripFields fields, Long id, Limit limit) {
+        return select(fields, "where t.id > :id order by t.id asc", Map.of("id", id), limit);
+    }
+
+    @Override
+    public List<TripRow> findSparseRowsByStartTrip(TripFields fields, LocalDateTime afterStartTrip, Long afterId, Limit limit) {
+        String order = " order by t.startTrip asc nulls last, t.id asc";
+        if (afterId == null) {
+            return select(fields, order, Map.of(), limit);
+        }
+        if (afterStartTrip == null) {
+            return select(fields, "where t.startTrip is null and t.id > :id order by t.id asc", Map.of("id", afterId), limit);
+        }
+        return select(fields, "where t.startTrip > :startTrip or (t.startTrip = :startTrip and t.id > :id)"
+                + " or t.startTrip is null" + order, Map.of("startTrip", afterStartTrip, "id", afterId), limit);
+    }
+
+    @Override
+    public List<TripRow> findSparseOverlapping(TripFields fields, LocalDateTime from, LocalDateTime to) {
+        return select(fields, "where t.startTrip <= :to and t.endTrip >= :from order by t.startTrip asc, t.id asc",
+                Map.of("from", from, "to", to), Limit.unlimited());
+    }
+
+    @Override
+    public List<TripRow> findSparseRowsByIdIn(TripFields fields, Collection<Long> ids) {
+        return select(fields, "where t.id in :ids", Map.of("ids", ids), Limit.unlimited());
+    }
+
+    private List<TripRow> select(TripFields fields, String clause, Map<String, Object> parameters, Limit limit) {
+        StringBuilder jpql = new StringBuilder("select t.id as id, t.version as version");
+        for (String column : fields.columns()) {
+            jpql.append(", t.").append(column).append(" as ").append(column);
+        }
+        jpql.append(" from BusinessTrip t ").append(clause);
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        parameters.forEach(query::setParameter);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return query.getResultList().stream()
+                .map(row -> new TripRow(row.get("id", Long.class), row.get("version", Long.class),
+                        column(row, fields, "title", String.class),
+                        column(row, fields, "description", String.class),
+                        column(row, fields, TripFields.START_TRIP, LocalDateTime.class),
+                        column(row, fields, "endTrip", LocalDateTime.class)))
+                .toList();
+    }
+
+    private static <T> T column(Tuple row, TripFields fields, String name, Class<T> type) {
+        return fields.includes(name) ? row.get(name, type) : null;
+    }
+}
@@ -0,0 +1,15 @@
+package ch.clip.trips.repo;
+
+import ch.clip.trips.event.TripChangeEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * What is left to announce about a trip about to be deleted: its dates and meeting count.
+ */
+public record TripDeletion(Long id, LocalDateTime startTrip, LocalDateTime endTrip, Long meetings) {
+
+    public TripChangeEvent.TripDeleted toEvent() {
+        return new TripChangeEvent.TripDeleted(id, startTrip, endTrip, meetings);
+    }
+}
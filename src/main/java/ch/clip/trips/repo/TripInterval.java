@@ -0,0 +1,9 @@
+package ch.clip.trips.repo;
+
+import java.time.LocalDateTime;
+
+/**
+ * Travel period of a single trip, as loaded for the in-memory interval index.
+ */
+public record TripInterval(Long tripId, LocalDateTime startTrip, LocalDateTime endTrip) {
+}
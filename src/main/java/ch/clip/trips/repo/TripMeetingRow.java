@@ -0,0 +1,16 @@
+package ch.clip.trips.repo;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the trip/meeting outer join used for the detail view. The meeting columns
+ * are {@code null} for a trip without meetings.
+ */
+public record TripMeetingRow(Long id, Long version, String title, String description,
+                             LocalDateTime startTrip, LocalDateTime endTrip,
+                             Long meetingId, String meetingTitle, String meetingDescription) {
+
+    public TripRow trip() {
+        return new TripRow(id, version, title, description, startTrip, endTrip);
+    }
+}
@@ -0,0 +1,4 @@
+package ch.clip.trips.repo;
+
+public record TripMonthCount(Integer year, Integer month, Long trips) {
+}
@@ -0,0 +1,21 @@
+package ch.clip.trips.repo;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.MeetingDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Columns of a trip as selected by the read queries, without creating a managed entity.
+ */
+public record TripRow(Long id, Long version, String title, String description,
+                      LocalDateTime startTrip, LocalDateTime endTrip) {
+
+    /**
+     * @param meetings the trip's meetings, or {@code null} to leave them out of the DTO
+     */
+    public BusinessTripDto toDto(List<MeetingDto> meetings) {
+        return new BusinessTripDto(id, title, description, startTrip, endTrip, meetings);
+    }
+}
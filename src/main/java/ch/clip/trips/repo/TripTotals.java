@@ -0,0 +1,7 @@
+package ch.clip.trips.repo;
+
+/**
+ * Trip count and summed travel time; only trips with both dates have a duration.
+ */
+public record TripTotals(Long trips, Long tripsWithDuration, Long durationSeconds) {
+}
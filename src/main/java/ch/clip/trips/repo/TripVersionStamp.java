@@ -0,0 +1,13 @@
+package ch.clip.trips.repo;
+
+/**
+ * Aggregate change marker for the whole trip table. Ids are never reused and every
+ * change to a trip or its meetings bumps the trip version, so any insert, delete or
+ * update changes at least one of the three values.
+ */
+public record TripVersionStamp(Long count, Long maxId, Long versionSum) {
+
+    public String toETag() {
+        return "W/\"" + count + "-" + (maxId == null ? 0 : maxId) + "-" + (versionSum == null ? 0 : versionSum) + "\"";
+    }
+}
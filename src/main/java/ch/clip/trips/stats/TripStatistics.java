@@ -0,0 +1,157 @@
+package ch.clip.trips.stats;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.TripStats;
+import ch.clip.trips.event.TripChangeEvent;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.repo.MeetingRepository;
+import ch.clip.trips.repo.TripMonthCount;
+import ch.clip.trips.repo.TripTotals;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Trip statistics kept in memory and updated from {@link TripChangeEvent}s, so
+ * {@code GET /v1/trips/stats} never touches the database. Covers the active trips; archived
+ * ones leave the statistics like deleted ones.
+ * <p>
+ * Counters are {@link LongAdder}s, so concurrent writers do not contend on them. They are
+ * loaded from the database at startup and compared against it every
+ * {@code trips.stats.reconcile-interval}; on a mismatch the database values replace them and
+ * {@code trips.stats.corrections} is incremented. A write committed but not yet announced
+ * while the comparison runs can cause a correction that is itself corrected next time.
+ */
+@Component
+public class TripStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(TripStatistics.class);
+
+    private final BusinessTripRepository businessTripRepository;
+    private final MeetingRepository meetingRepository;
+    private final TransactionTemplate readOnly;
+    private final Counter corrections;
+    private volatile Counters counters = new Counters();
+
+    public TripStatistics(BusinessTripRepository businessTripRepository,
+                          MeetingRepository meetingRepository,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry) {
+        this.businessTripRepository = businessTripRepository;
+        this.meetingRepository = meetingRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.corrections = Counter.builder("trips.stats.corrections")
+                .description("Reconciliations that found the in-memory trip statistics out of date")
+                .register(meterRegistry);
+    }
+
+    public TripStats snapshot() {
+        return counters.snapshot();
+    }
+
+    @EventListener
+    public void onTripChange(TripChangeEvent event) {
+        Counters current = counters;
+        switch (event) {
+            case TripChangeEvent.TripCreated created -> {
+                BusinessTripDto trip = created.trip();
+                current.addTrip(trip.startTrip(), trip.endTrip(), trip.meetings() == null ? 0 : trip.meetings().size(), 1);
+            }
+            case TripChangeEvent.TripDeleted deleted ->
+                    current.addTrip(deleted.startTrip(), deleted.endTrip(), deleted.meetings(), -1);
+            case TripChangeEvent.MeetingAdded added -> current.meetings.increment();
+            case TripChangeEvent.MeetingDeleted deleted -> current.meetings.decrement();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        counters = readCounters();
+    }
+
+    @Scheduled(fixedDelayString = "${trips.stats.reconcile-interval:PT5M}",
+            initialDelayString = "${trips.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        Counters actual = readCounters();
+        TripStats expected = actual.snapshot();
+        TripStats maintained = counters.snapshot();
+        if (!expected.equals(maintained)) {
+            log.warn("Trip statistics out of date, replacing {} with {}", maintained, expected);
+            counters = actual;
+            corrections.increment();
+        }
+    }
+
+    private Counters readCounters() {
+        return readOnly.execute(status -> {
+            Counters loaded = new Counters();
+            TripTotals totals = businessTripRepository.findTotals();
+            loaded.trips.add(totals.trips());
+            loaded.tripsWithDuration.add(totals.tripsWithDuration() == null ? 0 : totals.tripsWithDuration());
+            loaded.durationSeconds.add(totals.durationSeconds() == null ? 0 : totals.durationSeconds());
+            loaded.meetings.add(meetingRepository.count());
+            for (TripMonthCount month : businessTripRepository.countPerStartMonth()) {
+                loaded.month(YearMonth.of(month.year(), month.month())).add(month.trips());
+            }
+            return loaded;
+        });
+    }
+
+    private static final class Counters {
+        final LongAdder trips = new LongAdder();
+        final LongAdder meetings = new LongAdder();
+        final LongAdder tripsWithDuration = new LongAdder();
+        final LongAdder durationSeconds = new LongAdder();
+        final Map<YearMonth, LongAdder> tripsPerMonth = new ConcurrentHashMap<>();
+
+        // sign is 1 for an added trip and -1 for a removed one
+        void addTrip(LocalDateTime startTrip, LocalDateTime endTrip, long meetingCount, int sign) {
+            trips.add(sign);
+            meetings.add(sign * meetingCount);
+            if (startTrip != null) {
+                month(YearMonth.from(startTrip)).add(sign);
+                if (endTrip != null) {
+                    tripsWithDuration.add(sign);
+                    durationSeconds.add(sign * Duration.between(startTrip, endTrip).toSeconds());
+                }
+            }
+        }
+
+        LongAdder month(YearMonth month) {
+            return tripsPerMonth.computeIfAbsent(month, key -> new LongAdder());
+        }
+
+        TripStats snapshot() {
+            long tripCount = trips.sum();
+            long withDuration = tripsWithDuration.sum();
+            SortedMap<String, Long> months = new TreeMap<>();
+            tripsPerMonth.forEach((month, count) -> {
+                long sum = count.sum();
+                if (sum != 0) {
+                    months.put(month.toString(), sum);
+                }
+            });
+            return new TripStats(tripCount, meetings.sum(),
+                    tripCount == 0 ? 0 : meetings.sum() / (double) tripCount,
+                    withDuration == 0 ? null : durationSeconds.sum() / (double) withDuration / 3600,
+                    months);
+        }
+    }
+}
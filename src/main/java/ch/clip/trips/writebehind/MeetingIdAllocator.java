@@ -0,0 +1,36 @@
+package ch.clip.trips.writebehind;
+
+import ch.clip.trips.model.Meeting;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+/**
+ * Hands out meeting ids for rows inserted with plain JDBC.
+ * <p>
+ * The ids come from the identifier generator Hibernate uses for {@link Meeting}, so they are
+ * taken from the same in-memory block of {@code meeting_seq} as the ids of meetings saved
+ * through JPA and can never collide with them. A session is only opened to let the generator
+ * fetch the next block when the current one is used up.
+ */
+class MeetingIdAllocator {
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final BeforeExecutionGenerator generator;
+
+    MeetingIdAllocator(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.generator = (BeforeExecutionGenerator) sessionFactory.getMappingMetamodel()
+                .getEntityDescriptor(Meeting.class)
+                .getGenerator();
+    }
+
+    long nextId() {
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            return (Long) generator.generate((SharedSessionContractImplementor) session, null, null, EventType.INSERT);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package ch.clip.trips.writebehind;
+
+import ch.clip.trips.dto.MeetingDto;
+import ch.clip.trips.dto.MeetingWriteStatus;
+import ch.clip.trips.event.TripChangeEvent;
+import ch.clip.trips.ex.WriteQueueFullException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for new meetings, enabled with
+ * {@code trips.meetings.write-behind.enabled=true}.
+ * <p>
+ * Accepted meetings get their id immediately and are queued; a single writer thread takes
+ * up to {@code batch-size} of them at a time and inserts them with one JDBC batch, bumping
+ * the version of each affected trip once per batch. Meetings for trips that no longer exist
+ * are marked failed; if a batch fails, its meetings are retried one by one. The {@code durability} setting decides when the client gets its answer:
+ * <ul>
+ *     <li>{@code memory}: as soon as the meeting is queued (202). Queued meetings are lost if
+ *     the process dies before the next batch is written.</li>
+ *     <li>{@code group-commit}: once the batch containing the meeting is committed (201).
+ *     Concurrent requests still share one insert batch and transaction.</li>
+ * </ul>
+ * The outcome of each meeting stays queryable for {@code status-retention}.
+ */
+@Component
+@ConditionalOnProperty(name = "trips.meetings.write-behind.enabled", havingValue = "true")
+public class MeetingWriteBehindQueue {
+    private static final Logger log = LoggerFactory.getLogger(MeetingWriteBehindQueue.class);
+
+    public enum Durability {MEMORY, GROUP_COMMIT}
+
+    /**
+     * A meeting with its assigned id; {@code written} completes once it is persisted or has failed.
+     */
+    public record QueuedMeeting(MeetingDto meeting, CompletableFuture<MeetingWriteStatus> written) {
+    }
+
+    private final BlockingQueue<QueuedMeeting> queue;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final Durability durability;
+    private final MeetingIdAllocator idAllocator;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache<Long, MeetingWriteStatus> statuses;
+    private final Timer batchTimer;
+    private final Counter persisted;
+    private final Counter failed;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public MeetingWriteBehindQueue(@Value("${trips.meetings.write-behind.queue-capacity:10000}") int capacity,
+                                   @Value("${trips.meetings.write-behind.batch-size:500}") int batchSize,
+                                   @Value("${trips.meetings.write-behind.max-delay:5ms}") Duration maxDelay,
+                                   @Value("${trips.meetings.write-behind.durability:memory}") Durability durability,
+                                   @Value("${trips.meetings.write-behind.status-retention:10m}") Duration statusRetention,
+                                   JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                                   TransactionTemplate transactionTemplate,
+                                   ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.durability = durability;
+        this.idAllocator = new MeetingIdAllocator(entityManagerFactory);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.statuses = Caffeine.newBuilder().expireAfterWrite(statusRetention).build();
+        meterRegistry.gauge("trips.meetings.write.queue", queue, BlockingQueue::size);
+        this.batchTimer = Timer.builder("trips.meetings.write.batch")
+                .description("Time to insert one batch of queued meetings")
+                .register(meterRegistry);
+        this.persisted = meterRegistry.counter("trips.meetings.write", "result", "persisted");
+        this.failed = meterRegistry.counter("trips.meetings.write", "result", "failed");
+        this.writer = Thread.ofPlatform().name("meeting-writer").daemon().start(this::run);
+    }
+
+    public Durability durability() {
+        return durability;
+    }
+
+    /**
+     * Assigns an id and queues the meeting.
+     *
+     * @throws WriteQueueFullException if the queue is at capacity
+     */
+    public QueuedMeeting submit(Long tripId, MeetingDto meeting) {
+        MeetingDto withId = new MeetingDto(idAllocator.nextId(), meeting.title(), meeting.description(), tripId);
+        QueuedMeeting pending = new QueuedMeeting(withId, new CompletableFuture<>());
+        statuses.put(withId.id(), MeetingWriteStatus.queued(withId.id(), tripId));
+        if (!running || !queue.offer(pending)) {
+            statuses.invalidate(withId.id());
+            throw new WriteQueueFullException();
+        }
+        return pending;
+    }
+
+    public MeetingWriteStatus status(Long meetingId) {
+        return statuses.getIfPresent(meetingId);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        // Whatever is still queued is written on the caller's thread before the database goes away
+        List<QueuedMeeting> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int from = 0; from < rest.size(); from += batchSize) {
+            write(rest.subList(from, Math.min(from + batchSize, rest.size())));
+        }
+    }
+
+    private void run() {
+        List<QueuedMeeting> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                QueuedMeeting first = queue.take();
+                batch.add(first);
+                // Give concurrent requests a moment to join the batch
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    QueuedMeeting next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                write(batch);
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Meeting writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch in one transaction. If it fails, its meetings are retried one by one so
+     * that a single bad row does not fail the meetings of other trips.
+     */
+    private void write(List<QueuedMeeting> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Timer.Sample sample = Timer.start();
+        try {
+            complete(transactionTemplate.execute(status -> insert(batch)));
+        } catch (RuntimeException e) {
+            String error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (batch.size() == 1) {
+                fail(batch.get(0), error);
+            } else {
+                log.warn("Writing {} queued meetings failed, retrying individually: {}", batch.size(), error);
+                batch.forEach(this::writeSingle);
+            }
+        } finally {
+            sample.stop(batchTimer);
+        }
+    }
+
+    private void writeSingle(QueuedMeeting pending) {
+        try {
+            complete(transactionTemplate.execute(status -> insert(List.of(pending))));
+        } catch (RuntimeException e) {
+            fail(pending, NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    /**
+     * Inserts the meetings whose trip exists. The trips are selected {@code for update}, so
+     * none of them can be deleted before the transaction commits. Nothing is completed here:
+     * the outcome is only known once the transaction has committed.
+     */
+    private Inserted insert(List<QueuedMeeting> batch) {
+        Set<Long> tripIds = new HashSet<>();
+        batch.forEach(pending -> tripIds.add(pending.meeting().businessTripId()));
+        Set<Long> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "select id from business_trip where id in (:ids) for update",
+                new MapSqlParameterSource("ids", tripIds), Long.class));
+
+        List<QueuedMeeting> valid = new ArrayList<>(batch.size());
+        List<QueuedMeeting> rejected = new ArrayList<>();
+        List<MapSqlParameterSource> rows = new ArrayList<>(batch.size());
+        for (QueuedMeeting pending : batch) {
+            MeetingDto meeting = pending.meeting();
+            if (!existing.contains(meeting.businessTripId())) {
+                rejected.add(pending);
+                continue;
+            }
+            valid.add(pending);
+            rows.add(new MapSqlParameterSource()
+                    .addValue("id", meeting.id())
+                    .addValue("title", meeting.title())
+                    .addValue("description", meeting.description())
+                    .addValue("tripId", meeting.businessTripId()));
+        }
+        if (!valid.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into meeting (id, version, title, description, business_trip_id)"
+                    + " values (:id, 0, :title, :description, :tripId)", rows.toArray(new MapSqlParameterSource[0]));
+            existing.retainAll(valid.stream().map(pending -> pending.meeting().businessTripId()).toList());
+            jdbcTemplate.update("update business_trip set version = version + 1 where id in (:ids)",
+                    new MapSqlParameterSource("ids", existing));
+        }
+        return new Inserted(valid, rejected);
+    }
+
+    // Called after the transaction of the batch has committed
+    private void complete(Inserted inserted) {
+        for (QueuedMeeting pending : inserted.rejected()) {
+            fail(pending, "Could not find trip " + pending.meeting().businessTripId());
+        }
+        for (QueuedMeeting pending : inserted.written()) {
+            complete(pending, MeetingWriteStatus.queued(pending.meeting().id(), pending.meeting().businessTripId()).persisted());
+            eventPublisher.publishEvent(new TripChangeEvent.MeetingAdded(pending.meeting()));
+        }
+    }
+
+    private void fail(QueuedMeeting pending, String error) {
+        complete(pending, MeetingWriteStatus.queued(pending.meeting().id(), pending.meeting().businessTripId()).failed(error));
+    }
+
+    private void complete(QueuedMeeting pending, MeetingWriteStatus status) {
+        statuses.put(status.id(), status);
+        (status.state() == MeetingWriteStatus.State.PERSISTED ? persisted : failed).increment();
+        pending.written().complete(status);
+    }
+
+    private record Inserted(List<QueuedMeeting> written, List<QueuedMeeting> rejected) {
+    }
+}
@@ -0,0 +1,40 @@
+-- Ids come from pooled sequences: Hibernate and the meeting write-behind queue reserve blocks of 50
+create sequence business_trip_seq start with 1 increment by 50;
+create sequence meeting_seq start with 1 increment by 50;
+
+create table business_trip (
+    id bigint not null,
+    version bigint,
+    title varchar(255),
+    description varchar(255),
+    start_trip timestamp(6),
+    end_trip timestamp(6),
+    primary key (id)
+);
+
+create table meeting (
+    id bigint not null,
+    version bigint,
+    title varchar(255),
+    description varchar(255),
+    business_trip_id bigint,
+    primary key (id),
+    constraint fk_meeting_business_trip foreign key (business_trip_id) references business_trip (id)
+);
+
+create table archived_trip (
+    id bigint not null,
+    title varchar(255),
+    description varchar(255),
+    start_trip timestamp(6),
+    end_trip timestamp(6),
+    archived_at timestamp(6),
+    meetings_json clob,
+    primary key (id)
+);
+
+-- Date-range and keyset queries on trips, meeting lookups by trip
+create index idx_business_trip_start_end on business_trip (start_trip, end_trip);
+create index idx_business_trip_end on business_trip (end_trip);
+create index idx_meeting_business_trip on meeting (business_trip_id);
+create index idx_archived_trip_start_end on archived_trip (start_trip, end_trip);
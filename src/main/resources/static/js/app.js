@@ -175,6 +175,36 @@ document.addEventListener('DOMContentLoaded', () => {
         }
     });
 
+    // --- Live Updates ---
+
+    // Changes made in other tabs or by other clients arrive via Server-Sent Events;
+    // bursts (e.g. a bulk import) are collapsed into a single reload
+    let reloadTimer = null;
+    const scheduleReload = (reloadMeetings) => {
+        clearTimeout(reloadTimer);
+        reloadTimer = setTimeout(() => {
+            fetchTrips();
+            if (reloadMeetings && selectedTripId) {
+                fetchMeetings(selectedTripId);
+            }
+        }, 200);
+    };
+
+    if (window.EventSource) {
+        // EventSource reconnects on its own and sends Last-Event-ID to resume
+        const changes = new EventSource(`${API_URL}/trips/changes`);
+        changes.addEventListener('trip-created', () => scheduleReload(false));
+        changes.addEventListener('trip-deleted', () => scheduleReload(true));
+        ['meeting-created', 'meeting-deleted'].forEach(type => changes.addEventListener(type, (e) => {
+            const change = JSON.parse(e.data);
+            const tripId = change.meeting ? change.meeting.businessTripId : change.tripId;
+            if (String(tripId) === String(selectedTripId)) {
+                fetchMeetings(selectedTripId);
+            }
+        }));
+        changes.addEventListener('reset', () => scheduleReload(true));
+    }
+
     // Initial load
     fetchTrips();
 }); 
\ No newline at end of file
@@ -0,0 +1,143 @@
+package ch.clip.trips;
+
+import ch.clip.trips.model.BusinessTrip;
+import ch.clip.trips.model.Meeting;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.repo.MeetingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+class BusinessTripBatchControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BusinessTripRepository businessTripRepository;
+
+    @Autowired
+    private MeetingRepository meetingRepository;
+
+    @BeforeEach
+    void setUp() {
+        businessTripRepository.deleteAll();
+    }
+
+    @Test
+    void whenImportJsonArray_thenReportsResultPerItem() throws Exception {
+        String body = """
+                [
+                  {"title": "Berlin", "description": "Konferenz", "startTrip": "2025-03-01T09:00:00", "endTrip": "2025-03-02T18:00:00",
+                   "meetings": [{"title": "Keynote", "description": "Eröffnung"}, {"title": "Workshop", "description": "Hands-on"}]},
+                  {"title": "", "description": "Missing title"},
+                  {"title": "Basel", "description": "Kundenbesuch", "startTrip": "2025-04-01T09:00:00", "endTrip": "2025-04-01T17:00:00"}
+                ]
+                """;
+
+        mockMvc.perform(post("/v1/trips:batch").param("chunkSize", "2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("CREATED")))
+                .andExpect(jsonPath("$.results[0].id", notNullValue()))
+                .andExpect(jsonPath("$.results[1].status", is("FAILED")))
+                .andExpect(jsonPath("$.results[1].error", is("Title is required")))
+                .andExpect(jsonPath("$.results[2].index", is(2)))
+                .andExpect(jsonPath("$.results[2].status", is("CREATED")));
+
+        List<BusinessTrip> berlin = businessTripRepository.findByTitle("Berlin");
+        assertEquals(1, berlin.size());
+        assertEquals(2, meetingRepository.findByBusinessTrip_Id(berlin.get(0).getId()).size());
+    }
+
+    @Test
+    void whenImportNdjson_thenCreatesAllTrips() throws Exception {
+        String body = """
+                {"title": "Zürich", "startTrip": "2025-05-01T09:00:00", "endTrip": "2025-05-02T18:00:00"}
+                {"title": "Genf", "startTrip": "2025-06-01T09:00:00", "endTrip": "2025-05-02T18:00:00"}
+                {"title": "Bern", "meetings": [{"title": "Review"}]}
+                """;
+
+        mockMvc.perform(post("/v1/trips:batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.results[1].error", is("endTrip must not be before startTrip")));
+
+        assertEquals(2, businessTripRepository.count());
+    }
+
+    @Test
+    void whenMeetingsOfSeveralTrips_thenGroupedByTripWithMissingIds() throws Exception {
+        BusinessTrip berlin = saveTrip("Berlin", "Keynote", "Workshop");
+        BusinessTrip basel = saveTrip("Basel");
+        long unknown = basel.getId() + 100;
+
+        mockMvc.perform(get("/v1/trips/meetings")
+                        .param("tripIds", berlin.getId() + "," + unknown + "," + basel.getId() + "," + berlin.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.meetings." + berlin.getId(), hasSize(2)))
+                .andExpect(jsonPath("$.meetings." + berlin.getId() + "[0].title", is("Keynote")))
+                .andExpect(jsonPath("$.meetings." + basel.getId(), hasSize(0)))
+                .andExpect(jsonPath("$.missing", contains((int) unknown)));
+    }
+
+    @Test
+    void whenLookupTrips_thenTripsInRequestOrderWithMissingIds() throws Exception {
+        BusinessTrip berlin = saveTrip("Berlin", "Keynote");
+        BusinessTrip basel = saveTrip("Basel");
+        long unknown = basel.getId() + 100;
+
+        mockMvc.perform(post("/v1/trips:lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + basel.getId() + ", " + unknown + ", " + berlin.getId() + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trips[*].title", contains("Basel", "Berlin")))
+                .andExpect(jsonPath("$.trips[1].meetings[0].title", is("Keynote")))
+                .andExpect(jsonPath("$.missing", contains((int) unknown)));
+
+        mockMvc.perform(post("/v1/trips:lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private BusinessTrip saveTrip(String title, String... meetingTitles) {
+        BusinessTrip trip = new BusinessTrip(title, "Lookup", LocalDateTime.of(2025, 3, 1, 9, 0), LocalDateTime.of(2025, 3, 2, 18, 0));
+        List<Meeting> meetings = new ArrayList<>();
+        for (String meetingTitle : meetingTitles) {
+            meetings.add(new Meeting(meetingTitle, "Lookup", trip));
+        }
+        trip.setMeetings(meetings);
+        return businessTripRepository.save(trip);
+    }
+}
@@ -1,8 +1,17 @@
 package ch.clip.trips;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import ch.clip.trips.archive.TripArchiver;
+import ch.clip.trips.dto.TripMapper;
+import ch.clip.trips.dto.TripStats;
+import ch.clip.trips.ex.BusinessTripNotFoundException;
 import ch.clip.trips.model.BusinessTrip;
 import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.stats.TripStatistics;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,13 +19,24 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -40,6 +60,18 @@ class BusinessTripControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TripArchiver tripArchiver;
+
+    @Autowired
+    private TripStatistics tripStatistics;
+
     private BusinessTrip sampleTrip;
 
     @BeforeEach
@@ -51,6 +83,8 @@ class BusinessTripControllerTest {
         sampleTrip.setStartTrip(LocalDateTime.of(2024, 1, 1, 9, 0));
         sampleTrip.setEndTrip(LocalDateTime.of(2024, 1, 5, 18, 0));
         sampleTrip = businessTripRepository.save(sampleTrip);
+        // The rows above changed without events; start every test from counters matching them
+        tripStatistics.load();
     }
 
     @Test
@@ -102,9 +136,8 @@ class BusinessTripControllerTest {
         // Setup: Add a meeting to the trip
         Meeting meeting = new Meeting("Test Meeting", "A test meeting", sampleTrip);
         
-        List<Meeting> meetings = new java.util.ArrayList<>();
-        meetings.add(meeting);
-        sampleTrip.setMeetings(meetings);
+        // setUp has flushed the trip, so its meetings are a managed collection
+        sampleTrip.getMeetings().add(meeting);
         
         businessTripRepository.save(sampleTrip);
 
@@ -124,4 +157,511 @@ class BusinessTripControllerTest {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.title", is("New Meeting Spot")));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void whenMeetingWrittenSynchronously_thenStatusIsPersisted() throws Exception {
+        sampleTrip.getMeetings().add(new Meeting("Written", null, sampleTrip));
+        Long meetingId = businessTripRepository.save(sampleTrip).getMeetings().get(0).getId();
+
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId() + "/meetings/" + meetingId + "/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state", is("PERSISTED")));
+        mockMvc.perform(get("/v1/trips/" + (sampleTrip.getId() + 1) + "/meetings/" + meetingId + "/status"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenGetTripsWithLimit_thenReturnsKeysetPages() throws Exception {
+        for (int i = 2; i <= 3; i++) {
+            BusinessTrip trip = new BusinessTrip("Trip " + i, "Trip number " + i,
+                    LocalDateTime.of(2024, 1, i, 9, 0), LocalDateTime.of(2024, 1, i, 18, 0));
+            businessTripRepository.save(trip);
+        }
+
+        String link = mockMvc.perform(get("/v1/trips").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].title", is("Test City")))
+                .andExpect(header().string("Link", containsString("rel=\"next\"")))
+                .andReturn().getResponse().getHeader("Link");
+
+        String next = link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        mockMvc.perform(get(URI.create(next)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title", is("Trip 3")))
+                .andExpect(header().doesNotExist("Link"));
+    }
+
+    @Test
+    void whenGetTripsWithFields_thenOnlyThoseFieldsAreReturned() throws Exception {
+        BusinessTrip later = new BusinessTrip("Later", "Starts after the sample", LocalDateTime.of(2030, 1, 1, 9, 0), null);
+        businessTripRepository.save(later);
+
+        // Paging by start date needs startTrip for the cursor, even when it is not requested
+        String link = mockMvc.perform(get("/v1/trips?fields=title&sort=startTrip&limit=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title", is("Test City")))
+                .andExpect(jsonPath("$[0].startTrip").doesNotExist())
+                .andReturn().getResponse().getHeader("Link");
+        String next = link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        mockMvc.perform(get(URI.create(next)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].title", is("Later")))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
+
+        String fullETag = mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()).param("fields", "endTrip, meetings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(sampleTrip.getId()))
+                .andExpect(jsonPath("$.endTrip").exists())
+                .andExpect(jsonPath("$.meetings").isArray())
+                .andExpect(jsonPath("$.title").doesNotExist())
+                .andExpect(header().string("ETag", not(fullETag)));
+
+        mockMvc.perform(get("/v1/trips").param("fields", "title,password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPostRetriedWithIdempotencyKey_thenOriginalResponseIsReplayed() throws Exception {
+        String trip = "{\"title\":\"Retried\",\"description\":\"Sent twice\"}";
+        long before = businessTripRepository.count();
+        String first = mockMvc.perform(post("/v1/trips").header("Idempotency-Key", "trip-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(trip))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+        mockMvc.perform(post("/v1/trips").header("Idempotency-Key", "trip-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(trip))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().json(first, true));
+        assertEquals(before + 1, businessTripRepository.count());
+
+        mockMvc.perform(post("/v1/trips").header("Idempotency-Key", "trip-1")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"Other\"}"))
+                .andExpect(status().isUnprocessableEntity());
+
+        // Failures are not stored, the same key can be used once the trip exists
+        String meeting = "{\"title\":\"Kickoff\",\"description\":\"Retried\"}";
+        mockMvc.perform(post("/v1/trips/0/meetings").header("Idempotency-Key", "meeting-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(meeting))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post("/v1/trips/0/meetings").header("Idempotency-Key", "meeting-1")
+                        .contentType(MediaType.APPLICATION_JSON).content(meeting))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenGetTripsWithInvalidCursor_thenReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/v1/trips").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenMeetingIsAdded_thenCachedTripAndMeetingsAreInvalidated() throws Exception {
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()))
+                .andExpect(jsonPath("$.meetings", hasSize(0)));
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId() + "/meetings"))
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        double hitsBefore = meterRegistry.get("cache.gets").tag("cache", "trips").tag("result", "hit")
+                .functionCounter().count();
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()))
+                .andExpect(status().isOk());
+        double hitsAfter = meterRegistry.get("cache.gets").tag("cache", "trips").tag("result", "hit")
+                .functionCounter().count();
+        assertEquals(hitsBefore + 1, hitsAfter);
+
+        MeetingDto newMeetingDto = new MeetingDto(null, "Cached Meeting", "A new meeting", sampleTrip.getId());
+        mockMvc.perform(post("/v1/trips/" + sampleTrip.getId() + "/meetings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newMeetingDto)))
+                .andExpect(status().isCreated());
+        // Each request gets its own persistence context outside of this test transaction
+        entityManager.flush();
+        entityManager.clear();
+
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()))
+                .andExpect(jsonPath("$.meetings", hasSize(1)))
+                .andExpect(jsonPath("$.meetings[0].title", is("Cached Meeting")));
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId() + "/meetings"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title", is("Cached Meeting")));
+    }
+
+    @Test
+    void whenGetTripWithMatchingETag_thenReturnsNotModified() throws Exception {
+        String eTag = mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        MeetingDto newMeetingDto = new MeetingDto(null, "New Meeting", "Changes the trip version", sampleTrip.getId());
+        mockMvc.perform(post("/v1/trips/" + sampleTrip.getId() + "/meetings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(newMeetingDto)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)));
+    }
+
+    @Test
+    void whenGetTripListWithMatchingETag_thenReturnsNotModified() throws Exception {
+        String eTag = mockMvc.perform(get("/v1/trips"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/v1/trips").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId() + "/meetings").header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"));
+    }
+
+    @Test
+    void whenDeleteTripWithStaleIfMatch_thenReturnsPreconditionFailed() throws Exception {
+        String eTag = mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(delete("/v1/trips/" + sampleTrip.getId()).header("If-Match", "\"" + sampleTrip.getId() + "-99\""))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete("/v1/trips/" + sampleTrip.getId()).header("If-Match", eTag))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void whenDeleteMeetingWithIfMatch_thenCheckedAgainstTripVersion() throws Exception {
+        sampleTrip.getMeetings().add(new Meeting("Kickoff", null, sampleTrip));
+        Long meetingId = businessTripRepository.save(sampleTrip).getMeetings().get(0).getId();
+        entityManager.flush();
+        String eTag = mockMvc.perform(get("/v1/trips/" + sampleTrip.getId() + "/meetings"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(delete("/v1/trips/" + sampleTrip.getId() + "/meetings/" + meetingId)
+                        .header("If-Match", "W/\"" + sampleTrip.getId() + "-99\""))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(delete("/v1/trips/" + sampleTrip.getId() + "/meetings/" + meetingId).header("If-Match", eTag))
+                .andExpect(status().isNoContent());
+        // The delete changed the version, so the same ETag no longer matches
+        mockMvc.perform(delete("/v1/trips/" + sampleTrip.getId()).header("If-Match", eTag))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void whenDeleteMeetingOfUnknownTrip_thenTripNotFound() throws Exception {
+        MvcResult result = mockMvc.perform(delete("/v1/trips/999999/meetings/1"))
+                .andExpect(status().isNotFound())
+                .andReturn();
+        assertTrue(result.getResolvedException() instanceof BusinessTripNotFoundException);
+    }
+
+    @Test
+    void whenDeleteMeetingOfAnotherTrip_thenReturnsNotFound() throws Exception {
+        BusinessTrip otherTrip = new BusinessTrip("Other City", null,
+                LocalDateTime.of(2024, 2, 1, 9, 0), LocalDateTime.of(2024, 2, 2, 18, 0));
+        otherTrip.getMeetings().add(new Meeting("Other Meeting", null, otherTrip));
+        otherTrip = businessTripRepository.save(otherTrip);
+        Long meetingId = otherTrip.getMeetings().get(0).getId();
+
+        mockMvc.perform(delete("/v1/trips/" + sampleTrip.getId() + "/meetings/" + meetingId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/v1/trips/" + otherTrip.getId() + "/meetings/" + meetingId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/v1/trips/" + otherTrip.getId() + "/meetings"))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void whenBulkDeleteByIdsOrRange_thenReturnsDeletedCounts() throws Exception {
+        sampleTrip.getMeetings().add(new Meeting("Kickoff", null, sampleTrip));
+        sampleTrip.getMeetings().add(new Meeting("Review", null, sampleTrip));
+        businessTripRepository.save(sampleTrip);
+        BusinessTrip later = businessTripRepository.save(new BusinessTrip("Later Trip", null,
+                LocalDateTime.of(2024, 3, 1, 9, 0), LocalDateTime.of(2024, 3, 3, 18, 0)));
+        BusinessTrip latest = businessTripRepository.save(new BusinessTrip("Latest Trip", null,
+                LocalDateTime.of(2024, 6, 1, 9, 0), LocalDateTime.of(2024, 6, 3, 18, 0)));
+
+        mockMvc.perform(delete("/v1/trips").param("ids", sampleTrip.getId() + "," + later.getId() + ",999999"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trips", is(2)))
+                .andExpect(jsonPath("$.meetings", is(2)));
+        mockMvc.perform(delete("/v1/trips").param("to", "2024-05-31"))
+                .andExpect(jsonPath("$.trips", is(0)));
+        mockMvc.perform(delete("/v1/trips").param("from", "2024-06-01").param("to", "2024-06-30"))
+                .andExpect(jsonPath("$.trips", is(1)))
+                .andExpect(jsonPath("$.meetings", is(0)));
+        mockMvc.perform(get("/v1/trips/" + latest.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenBulkDeleteWithoutCriteria_thenReturnsBadRequest() throws Exception {
+        mockMvc.perform(delete("/v1/trips"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/v1/trips").param("ids", sampleTrip.getId().toString()).param("from", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v1/trips"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    void whenTripIsArchived_thenOnlyListedWithIncludeArchived() throws Exception {
+        sampleTrip.getMeetings().add(new Meeting("Kickoff", "Erstes Treffen", sampleTrip));
+        businessTripRepository.save(sampleTrip);
+        BusinessTrip upcoming = businessTripRepository.save(new BusinessTrip("Upcoming Trip", null,
+                LocalDateTime.of(2099, 1, 1, 9, 0), LocalDateTime.of(2099, 1, 2, 18, 0)));
+
+        assertEquals(1, tripArchiver.archiveEndedBefore(LocalDateTime.of(2025, 1, 1, 0, 0)));
+
+        mockMvc.perform(get("/v1/trips"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title", is("Upcoming Trip")));
+        mockMvc.perform(get("/v1/trips").param("includeArchived", "true"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].title", is("Test City")))
+                .andExpect(jsonPath("$[0].meetings[0].title", is("Kickoff")))
+                .andExpect(jsonPath("$[1].id", is(upcoming.getId().intValue())));
+        mockMvc.perform(get("/v1/trips").param("includeArchived", "true").param("limit", "1").param("sort", "startTrip"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title", is("Test City")))
+                .andExpect(header().exists("Link"));
+        mockMvc.perform(get("/v1/trips").param("includeArchived", "true").param("to", "2024-01-02"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title", is("Test City")));
+
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()).param("includeArchived", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.meetings").isArray());
+    }
+
+    @Test
+    void whenTripsAndMeetingsChange_thenStatsAreUpdated() throws Exception {
+        TripStats before = tripStatistics.snapshot();
+        BusinessTripDto tripDto = new BusinessTripDto(null, "Stats Trip", null,
+                LocalDateTime.of(2031, 3, 1, 9, 0), LocalDateTime.of(2031, 3, 3, 9, 0), null);
+        String body = mockMvc.perform(post("/v1/trips")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tripDto)))
+                .andReturn().getResponse().getContentAsString();
+        Long tripId = objectMapper.readValue(body, BusinessTripDto.class).id();
+        mockMvc.perform(post("/v1/trips/" + tripId + "/meetings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MeetingDto(null, "Stats Meeting", null, tripId))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/v1/trips/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.trips", is(2)))
+                .andExpect(jsonPath("$.meetings", is(1)))
+                .andExpect(jsonPath("$.tripsPerMonth.length()", is(2)))
+                .andExpect(jsonPath("$.tripsPerMonth['2024-01']", is(1)))
+                .andExpect(jsonPath("$.tripsPerMonth['2031-03']", is(1)));
+
+        mockMvc.perform(delete("/v1/trips/" + tripId))
+                .andExpect(status().isNoContent());
+        assertEquals(before, tripStatistics.snapshot());
+    }
+
+    @Test
+    void whenStatsDriftFromDatabase_thenReconciliationCorrectsThem() throws Exception {
+        // Saved through the repository, so no event reaches the counters
+        BusinessTrip unannounced = new BusinessTrip("Unannounced Trip", null,
+                LocalDateTime.of(2024, 2, 1, 9, 0), LocalDateTime.of(2024, 2, 2, 9, 0));
+        unannounced.setMeetings(new ArrayList<>(List.of(new Meeting("Unannounced Meeting", null, unannounced))));
+        businessTripRepository.save(unannounced);
+        entityManager.flush();
+        mockMvc.perform(get("/v1/trips/stats"))
+                .andExpect(jsonPath("$.trips", is(1)));
+        double corrections = meterRegistry.counter("trips.stats.corrections").count();
+
+        tripStatistics.reconcile();
+
+        mockMvc.perform(get("/v1/trips/stats"))
+                .andExpect(jsonPath("$.trips", is(2)))
+                .andExpect(jsonPath("$.meetings", is(1)))
+                .andExpect(jsonPath("$.averageDurationHours", is(64.5)))
+                .andExpect(jsonPath("$.tripsPerMonth.length()", is(2)))
+                .andExpect(jsonPath("$.tripsPerMonth['2024-01']", is(1)))
+                .andExpect(jsonPath("$.tripsPerMonth['2024-02']", is(1)));
+        assertEquals(corrections + 1, meterRegistry.counter("trips.stats.corrections").count());
+    }
+
+    @Test
+    void whenSearchWithoutUmlautsOrByPrefix_thenFindsTripAndMeeting() throws Exception {
+        // The search index is not rolled back with the test transaction, so use words no other test uses
+        BusinessTripDto tripDto = new BusinessTripDto(null, "Kundenbesuch Görlitz", "Quartalsgespräch",
+                LocalDateTime.of(2025, 3, 1, 9, 0), LocalDateTime.of(2025, 3, 2, 18, 0), null);
+        String created = mockMvc.perform(post("/v1/trips")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tripDto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long tripId = objectMapper.readValue(created, BusinessTripDto.class).id();
+        mockMvc.perform(post("/v1/trips/" + tripId + "/meetings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MeetingDto(null, "Werksführung Neuss", "Rundgang", tripId))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/v1/trips/search").param("q", "gorlitz"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].tripId", is(tripId.intValue())))
+                .andExpect(jsonPath("$[0].meetingIds", hasSize(0)));
+        mockMvc.perform(get("/v1/trips/search").param("q", "goerl werksfueh"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title", is("Kundenbesuch Görlitz")))
+                .andExpect(jsonPath("$[0].meetingIds", hasSize(1)));
+        mockMvc.perform(get("/v1/trips/search").param("q", "görlitz köln"))
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        mockMvc.perform(delete("/v1/trips/" + tripId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/v1/trips/search").param("q", "werksführung"))
+                .andExpect(jsonPath("$", hasSize(0)));
+    }
+
+    @Test
+    void whenSearch_thenTitleMatchesRankAboveMeetingMatches() throws Exception {
+        BusinessTrip byMeeting = new BusinessTrip("Messe Hannover", "Standdienst",
+                LocalDateTime.of(2025, 4, 1, 9, 0), LocalDateTime.of(2025, 4, 3, 18, 0));
+        byMeeting.setMeetings(new ArrayList<>(List.of(new Meeting("Abendessen Lüneburg", "mit Partnern", byMeeting))));
+        mockMvc.perform(post("/v1/trips:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(
+                                TripMapper.convertTripToDto(byMeeting, byMeeting.getMeetings()),
+                                new BusinessTripDto(null, "Lüneburg Workshop", "Planung", null, null, null)))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/trips/search").param("q", "luneburg"))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].title", is("Lüneburg Workshop")))
+                .andExpect(jsonPath("$[1].title", is("Messe Hannover")));
+    }
+
+    @Test
+    void whenGetTripsInDateRange_thenReturnsOverlappingTrips() throws Exception {
+        businessTripRepository.save(new BusinessTrip("Later Trip", "Starts after Test City",
+                LocalDateTime.of(2024, 1, 10, 9, 0), LocalDateTime.of(2024, 1, 12, 18, 0)));
+
+        mockMvc.perform(get("/v1/trips").param("from", "2024-01-04").param("to", "2024-01-10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].title", is("Test City")))
+                .andExpect(jsonPath("$[1].title", is("Later Trip")));
+        mockMvc.perform(get("/v1/trips").param("from", "2024-01-06").param("to", "2024-01-09"))
+                .andExpect(jsonPath("$", hasSize(0)));
+        mockMvc.perform(get("/v1/trips").param("from", "2024-01-05T18:00:00"))
+                .andExpect(jsonPath("$", hasSize(2)));
+        mockMvc.perform(get("/v1/trips").param("to", "2024-01-01").param("view", "summary"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].title", is("Test City")))
+                .andExpect(jsonPath("$[0].meetings").doesNotExist());
+    }
+
+    @Test
+    void whenGetTripsWithInvalidDateRange_thenReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/v1/trips").param("from", "2024-01-10").param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v1/trips").param("from", "next week"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenGetTripById_thenQueryCountMappingAndSerializationAreRecorded() throws Exception {
+        entityManager.flush();
+        entityManager.clear();
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()))
+                .andExpect(status().isOk());
+
+        DistributionSummary queries = meterRegistry.get("trips.request.queries")
+                .tag("uri", "/v1/trips/{id}").summary();
+        assertTrue(queries.count() >= 1);
+        assertTrue(queries.max() >= 1);
+        assertTrue(meterRegistry.get("trips.serialization")
+                .tag("format", "json").tag("uri", "/v1/trips/{id}").timer().count() >= 1);
+        mockMvc.perform(get("/v1/trips/" + sampleTrip.getId()).accept("application/cbor"))
+                .andExpect(status().isOk());
+        assertTrue(meterRegistry.get("trips.serialization")
+                .tag("format", "cbor").tag("uri", "/v1/trips/{id}").timer().count() >= 1);
+        assertTrue(meterRegistry.get("trips.mapping")
+                .tag("view", "detail").timer().count() >= 1);
+    }
+
+    @Test
+    void whenSubscribedToChanges_thenReceivesEventsAndResumesAfterLastEventId() throws Exception {
+        MvcResult live = mockMvc.perform(get("/v1/trips/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        BusinessTripDto tripDto = new BusinessTripDto(null, "Change Feed Trip", "Observed via SSE", null, null, null);
+        String created = mockMvc.perform(post("/v1/trips")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(tripDto)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long tripId = objectMapper.readValue(created, BusinessTripDto.class).id();
+
+        Matcher event = Pattern.compile("id:(\\d+)\nevent:trip-created\ndata:\\{\"trip\":\\{\"id\":" + tripId + ",")
+                .matcher(awaitContent(live, "\"id\":" + tripId + ","));
+        assertTrue(event.find(), "trip-created event with its id");
+        String tripEventId = event.group(1);
+
+        mockMvc.perform(post("/v1/trips/" + tripId + "/meetings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new MeetingDto(null, "Feed Meeting", "", tripId))))
+                .andExpect(status().isCreated());
+        awaitContent(live, "event:meeting-created");
+
+        MvcResult resumed = mockMvc.perform(get("/v1/trips/changes").header("Last-Event-ID", tripEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String replayed = awaitContent(resumed, "event:meeting-created");
+        assertFalse(replayed.contains("event:trip-created"), replayed);
+
+        MvcResult unknown = mockMvc.perform(get("/v1/trips/changes").header("Last-Event-ID", "999999999"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(unknown, "event:reset");
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), "Expected " + expected + " in " + content);
+        return content;
+    }
+
+    @Test
+    void whenAcceptCbor_thenReturnsCborEncodedTrips() throws Exception {
+        byte[] body = mockMvc.perform(get("/v1/trips").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory()).findAndRegisterModules();
+        BusinessTripDto[] trips = cbor.readValue(body, BusinessTripDto[].class);
+        assertEquals(1, trips.length);
+        assertEquals("Test City", trips[0].title());
+        assertEquals(sampleTrip.getStartTrip(), trips[0].startTrip());
+
+        mockMvc.perform(get("/v1/trips").accept(MediaType.ALL))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+    }
+}
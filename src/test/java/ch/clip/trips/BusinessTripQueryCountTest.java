@@ -0,0 +1,156 @@
+package ch.clip.trips;
+
+import ch.clip.trips.model.BusinessTrip;
+import ch.clip.trips.model.Meeting;
+import ch.clip.trips.repo.BusinessTripRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the trip read endpoints against N+1 query regressions by counting the
+ * JDBC statements Hibernate prepares while serving a request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+class BusinessTripQueryCountTest {
+
+    private static final int TRIP_COUNT = 25;
+    private static final int MEETINGS_PER_TRIP = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BusinessTripRepository businessTripRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Long firstTripId;
+
+    @BeforeEach
+    void setUp() {
+        businessTripRepository.deleteAll();
+        for (int i = 0; i < TRIP_COUNT; i++) {
+            BusinessTrip trip = new BusinessTrip("Trip " + i, "Description " + i,
+                    LocalDateTime.of(2024, 1, 1, 9, 0).plusDays(i), LocalDateTime.of(2024, 1, 2, 18, 0).plusDays(i));
+            List<Meeting> meetings = new ArrayList<>();
+            for (int j = 0; j < MEETINGS_PER_TRIP; j++) {
+                meetings.add(new Meeting("Meeting " + j, "Meeting " + j + " of trip " + i, trip));
+            }
+            trip.setMeetings(meetings);
+            BusinessTrip saved = businessTripRepository.save(trip);
+            if (firstTripId == null) {
+                firstTripId = saved.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @Test
+    void whenGetAllTrips_thenQueryCountDoesNotGrowWithTrips() throws Exception {
+        mockMvc.perform(get("/v1/trips"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(TRIP_COUNT)))
+                .andExpect(jsonPath("$[0].meetings", hasSize(MEETINGS_PER_TRIP)));
+
+        // ETag version stamp, trips, meetings
+        assertStatementsAtMost(3);
+    }
+
+    @Test
+    void whenGetTripPage_thenQueryCountDoesNotGrowWithTrips() throws Exception {
+        mockMvc.perform(get("/v1/trips").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10)));
+
+        assertStatementsAtMost(3);
+    }
+
+    @Test
+    void whenGetSummaryView_thenMeetingsAreNotLoaded() throws Exception {
+        mockMvc.perform(get("/v1/trips").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(TRIP_COUNT)))
+                .andExpect(jsonPath("$[0].meetings", nullValue()));
+
+        assertStatementsAtMost(2);
+    }
+
+    @Test
+    void whenGetTripsWithFields_thenOnlyThoseColumnsAreSelected() throws Exception {
+        mockMvc.perform(get("/v1/trips").param("fields", "title,startTrip"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(TRIP_COUNT)))
+                .andExpect(jsonPath("$[0].title").value("Trip 0"))
+                .andExpect(jsonPath("$[0].description").doesNotExist())
+                .andExpect(jsonPath("$[0].meetings").doesNotExist());
+
+        assertStatementsAtMost(2);
+        for (String sql : statistics.getQueries()) {
+            assertFalse(sql.contains("description") || sql.contains("Meeting"), sql);
+        }
+    }
+
+    @Test
+    void whenGetTripById_thenTripAndMeetingsAreLoadedTogether() throws Exception {
+        mockMvc.perform(get("/v1/trips/" + firstTripId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.meetings", hasSize(MEETINGS_PER_TRIP)));
+
+        assertStatementsAtMost(1);
+    }
+
+    @Test
+    void whenReadingTrips_thenNoEntitiesAreHydrated() throws Exception {
+        mockMvc.perform(get("/v1/trips"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/v1/trips/" + firstTripId))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/v1/trips/" + firstTripId + "/meetings"))
+                .andExpect(status().isOk());
+
+        assertEquals(0, statistics.getEntityLoadCount(), "entities loaded");
+        assertEquals(0, statistics.getCollectionLoadCount(), "collections loaded");
+    }
+
+    private void assertStatementsAtMost(long max) {
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= max, "Expected at most " + max + " SQL statements but got " + statements);
+    }
+}
@@ -0,0 +1,61 @@
+package ch.clip.trips;
+
+import ch.clip.trips.model.BusinessTrip;
+import ch.clip.trips.repo.BusinessTripRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Response compression is done by Tomcat, so it is checked against a running server rather
+ * than through MockMvc.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class CompressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BusinessTripRepository businessTripRepository;
+
+    @Test
+    void whenListIsLargerThanMinimumSize_thenGzipCompressed() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            businessTripRepository.save(new BusinessTrip("Compressed Trip " + i, "Enough text to pass the minimum size",
+                    LocalDateTime.of(2025, 1, 1, 9, 0), LocalDateTime.of(2025, 1, 2, 18, 0)));
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/v1/trips"))
+                .header("Accept-Encoding", "gzip")
+                .build();
+
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        assertTrue(response.headers().firstValue("ETag").orElseThrow().startsWith("W/\""));
+        String body;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(body.length() > 2048, "Uncompressed size " + body.length());
+        assertTrue(body.startsWith("[") && body.contains("Compressed Trip 19"));
+        assertTrue(response.body().length < body.length());
+    }
+}
@@ -0,0 +1,61 @@
+package ch.clip.trips;
+
+import ch.clip.trips.idempotency.IdempotencyStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The store on its own, without the web layer; the header handling is covered in
+ * {@code BusinessTripControllerTest}.
+ */
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore idempotencyStore = new IdempotencyStore(100, Duration.ofHours(1),
+            Duration.ofSeconds(30), new SimpleMeterRegistry());
+
+    @Test
+    void whenDuplicatesArriveConcurrently_thenWriteRunsOnce() throws Exception {
+        AtomicInteger writes = new AtomicInteger();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ResponseEntity<String>> write = () -> {
+            writes.incrementAndGet();
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ResponseEntity.status(201).body("created");
+        };
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            Future<ResponseEntity<String>> original = executor.submit(() -> idempotencyStore.execute("same", "test", "body", write));
+            writing.await();
+            List<Future<ResponseEntity<String>>> duplicates = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                duplicates.add(executor.submit(() -> idempotencyStore.execute("same", "test", "body", write)));
+            }
+            release.countDown();
+            assertEquals("created", original.get().getBody());
+            for (Future<ResponseEntity<String>> duplicate : duplicates) {
+                assertEquals("created", duplicate.get().getBody());
+                assertEquals(201, duplicate.get().getStatusCode().value());
+            }
+        }
+        assertEquals(1, writes.get());
+    }
+}
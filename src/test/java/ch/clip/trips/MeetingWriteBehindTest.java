@@ -0,0 +1,134 @@
+package ch.clip.trips;
+
+import ch.clip.trips.dto.MeetingDto;
+import ch.clip.trips.dto.MeetingWriteStatus;
+import ch.clip.trips.model.BusinessTrip;
+import ch.clip.trips.model.Meeting;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.repo.MeetingRepository;
+import ch.clip.trips.writebehind.MeetingWriteBehindQueue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Meetings written through the write-behind queue. The writer commits on its own thread, so
+ * these tests cannot roll back inside a test transaction.
+ */
+@SpringBootTest(properties = {
+        "trips.meetings.write-behind.enabled=true",
+        "trips.meetings.write-behind.durability=group-commit",
+        "trips.meetings.write-behind.max-delay=50ms"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MeetingWriteBehindTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BusinessTripRepository businessTripRepository;
+
+    @Autowired
+    private MeetingRepository meetingRepository;
+
+    @Autowired
+    private MeetingWriteBehindQueue meetingWriteBehindQueue;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void whenAddMeetingWithGroupCommit_thenPersistedBeforeResponse() throws Exception {
+        Long tripId = businessTripRepository.findAllRows().get(0).id();
+        MeetingDto meeting = new MeetingDto(null, "Queued Meeting", "Written in a batch", null);
+
+        String body = mockMvc.perform(post("/v1/trips/{tripId}/meetings", tripId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(meeting)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.businessTripId").value(tripId))
+                .andReturn().getResponse().getContentAsString();
+        Long meetingId = objectMapper.readValue(body, MeetingDto.class).id();
+
+        mockMvc.perform(get("/v1/trips/{tripId}/meetings", tripId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem(meetingId.intValue())));
+        mockMvc.perform(get("/v1/trips/{tripId}/meetings/{meetingId}/status", tripId, meetingId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("PERSISTED"));
+    }
+
+    @Test
+    void whenAddMeetingToUnknownTrip_thenNotFound() throws Exception {
+        MeetingDto meeting = new MeetingDto(null, "Lost Meeting", null, null);
+
+        mockMvc.perform(post("/v1/trips/{tripId}/meetings", 999_999L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(meeting)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenOneMeetingOfABatchFails_thenTheOthersArePersistedAndFailuresCountedOnce() throws Exception {
+        Long tripId = businessTripRepository.findAllRows().get(0).id();
+        double failedBefore = meterRegistry.counter("trips.meetings.write", "result", "failed").count();
+
+        MeetingWriteBehindQueue.QueuedMeeting tooLong = meetingWriteBehindQueue.submit(tripId,
+                new MeetingDto(null, "x".repeat(300), "Exceeds the title column", null));
+        MeetingWriteBehindQueue.QueuedMeeting unknownTrip = meetingWriteBehindQueue.submit(999_999L,
+                new MeetingDto(null, "Orphan", "Trip does not exist", null));
+        MeetingWriteBehindQueue.QueuedMeeting valid = meetingWriteBehindQueue.submit(tripId,
+                new MeetingDto(null, "Neighbour", "Same batch", null));
+
+        assertEquals(MeetingWriteStatus.State.FAILED, tooLong.written().get(10, TimeUnit.SECONDS).state());
+        assertTrue(unknownTrip.written().get(10, TimeUnit.SECONDS).error().contains("999999"));
+        assertEquals(MeetingWriteStatus.State.PERSISTED, valid.written().get(10, TimeUnit.SECONDS).state());
+        assertTrue(meetingRepository.existsById(valid.meeting().id()));
+        assertEquals(failedBefore + 2, meterRegistry.counter("trips.meetings.write", "result", "failed").count());
+    }
+
+    @Test
+    void whenMeetingsAreSavedThroughJpaAndQueued_thenIdsNeverCollide() throws Exception {
+        BusinessTrip trip = businessTripRepository.findAll().get(0);
+        Set<Long> ids = new HashSet<>();
+        List<MeetingWriteBehindQueue.QueuedMeeting> queued = new ArrayList<>();
+        // More than one block of meeting_seq for each side
+        for (int i = 0; i < 60; i++) {
+            MeetingWriteBehindQueue.QueuedMeeting pending = meetingWriteBehindQueue.submit(trip.getId(),
+                    new MeetingDto(null, "Queued " + i, null, null));
+            queued.add(pending);
+            ids.add(pending.meeting().id());
+            ids.add(meetingRepository.save(new Meeting("Saved " + i, null, trip)).getId());
+        }
+
+        assertEquals(120, ids.size());
+        for (MeetingWriteBehindQueue.QueuedMeeting pending : queued) {
+            assertEquals(MeetingWriteStatus.State.PERSISTED, pending.written().get(10, TimeUnit.SECONDS).state());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ch.clip.trips;
+
+import ch.clip.trips.limit.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Rate limiting and load shedding. Each test uses its own client address, so budgets used up
+ * by one test do not affect the others.
+ */
+@SpringBootTest(properties = {
+        "trips.rate-limit.enabled=true",
+        "trips.rate-limit.read.capacity=3",
+        "trips.rate-limit.read.refill-per-second=0.01",
+        "trips.rate-limit.write.capacity=1",
+        "trips.rate-limit.write.refill-per-second=0.01",
+        "trips.load-shedding.min-limit=1",
+        "trips.load-shedding.latency-threshold=1s"
+})
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+class RateLimitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void whenReadBudgetUsedUp_thenTooManyRequestsForReadsOnly() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/v1/trips/1").with(client("10.0.0.1")))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/v1/trips").with(client("10.0.0.1")))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        // Writes have their own budget, other clients their own buckets
+        mockMvc.perform(post("/v1/trips/1/meetings").with(client("10.0.0.1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Budget\",\"description\":\"Separate\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/v1/trips/1/meetings").with(client("10.0.0.1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Budget\",\"description\":\"Used up\"}"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/v1/trips/1").with(client("10.0.0.2")))
+                .andExpect(status().isOk());
+
+        assertTrue(meterRegistry.counter("trips.requests.rejected", "reason", "rate-limit", "operation", "read").count() >= 1);
+        assertTrue(meterRegistry.counter("trips.requests.rejected", "reason", "rate-limit", "operation", "write").count() >= 1);
+    }
+
+    @Test
+    void whenDatabaseSlow_thenConcurrencyLimitShrinksAndRequestsAreShed() throws Exception {
+        // Repository invocations feed the latency average
+        mockMvc.perform(get("/v1/trips/1").with(client("10.0.0.3")))
+                .andExpect(status().isOk());
+        assertTrue(meterRegistry.get("trips.concurrency.db-latency").gauge().value() > 0);
+
+        // A slow period long enough for many backoff intervals
+        long now = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            concurrencyLimit.recordLatency(TimeUnit.SECONDS.toNanos(5), now + i * TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(1, concurrencyLimit.limit());
+
+        assertTrue(concurrencyLimit.tryAcquire());
+        try {
+            mockMvc.perform(get("/v1/trips/1").with(client("10.0.0.3")))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"));
+        } finally {
+            concurrencyLimit.release();
+        }
+        mockMvc.perform(get("/v1/trips/1").with(client("10.0.0.3")))
+                .andExpect(status().isOk());
+        assertTrue(meterRegistry.counter("trips.requests.rejected", "reason", "overload", "operation", "read").count() >= 1);
+    }
+
+    @Test
+    void whenLatencySpikesBriefly_thenLimitShrinksOnce() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 200, Duration.ofMillis(250),
+                Duration.ofSeconds(1), new SimpleMeterRegistry());
+        long now = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            limit.recordLatency(TimeUnit.SECONDS.toNanos(2), now + i * TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertEquals(180, limit.limit());
+
+        // Still slow in the next interval: one more step
+        limit.recordLatency(TimeUnit.SECONDS.toNanos(2), now + TimeUnit.SECONDS.toNanos(1));
+        assertEquals(162, limit.limit());
+    }
+
+    private static RequestPostProcessor client(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package ch.clip.trips;
+
+import ch.clip.trips.cache.ReadCoalescer;
+import ch.clip.trips.cache.TripDtoCache;
+import ch.clip.trips.cache.Versioned;
+import ch.clip.trips.dto.BusinessTripDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent identical reads share one execution. The first caller's read is held until the
+ * others are parked waiting for it, so every run exercises the overlap.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RequestCoalescingTest {
+
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private ReadCoalescer readCoalescer;
+
+    @Autowired
+    private TripDtoCache tripDtoCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void whenIdenticalReadsOverlap_thenOneExecutionIsShared() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Object> results = runConcurrently(() -> readCoalescer.coalesce("test", "same-key", () -> {
+            executions.incrementAndGet();
+            await(release);
+            return new Object();
+        }), release);
+
+        assertEquals(1, executions.get());
+        results.forEach(result -> assertSame(results.get(0), result));
+        assertEquals(CALLERS - 1, meterRegistry.get("trips.reads").tags("read", "test", "result", "shared").counter().count());
+        assertEquals((CALLERS - 1) / (double) CALLERS,
+                meterRegistry.get("trips.reads.coalescing-ratio").tag("read", "test").gauge().value(), 1e-9);
+
+        // Nothing is kept once the read has completed
+        readCoalescer.coalesce("test", "same-key", executions::incrementAndGet);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void whenSharedReadFails_thenEveryWaitingCallerGetsTheFailure() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Object> results = runConcurrently(() -> {
+            try {
+                return readCoalescer.coalesce("failing", "same-key", () -> {
+                    await(release);
+                    throw new IllegalStateException("database down");
+                });
+            } catch (IllegalStateException e) {
+                return e;
+            }
+        }, release);
+
+        results.forEach(result -> assertTrue(result instanceof IllegalStateException));
+        assertThrows(IllegalStateException.class,
+                () -> readCoalescer.coalesce("failing", "same-key", () -> {
+                    throw new IllegalStateException("runs again");
+                }));
+    }
+
+    @Test
+    void whenTripIsRequestedConcurrently_thenCacheMissLoadsItOnce() throws Exception {
+        Long tripId = 4711L;
+        tripDtoCache.evict(tripId);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Object> results = runConcurrently(() -> tripDtoCache.getTrip(tripId, id -> {
+            loads.incrementAndGet();
+            await(release);
+            return new Versioned<>(new BusinessTripDto(id, "Shared", null, null, null, List.of()), 0);
+        }), release);
+
+        assertEquals(1, loads.get());
+        results.forEach(result -> assertSame(results.get(0), result));
+        assertTrue(meterRegistry.get("trips.reads").tags("read", TripDtoCache.TRIPS, "result", "shared").counter().count()
+                >= CALLERS - 1);
+        tripDtoCache.evict(tripId);
+    }
+
+    /**
+     * Starts the first caller, waits until it runs, then starts the others and releases the
+     * first once all of them are blocked.
+     */
+    private List<Object> runConcurrently(Supplier<Object> call, CountDownLatch release) throws Exception {
+        ConcurrentLinkedQueue<Object> results = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            Thread thread = new Thread(() -> results.add(call.get()));
+            threads.add(thread);
+            thread.start();
+            if (i == 0) {
+                waitUntilParked(threads);
+            }
+        }
+        waitUntilParked(threads);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(10_000);
+        }
+        assertEquals(CALLERS, results.size());
+        return new ArrayList<>(results);
+    }
+
+    private static void waitUntilParked(List<Thread> threads) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING
+                || thread.getState() == Thread.State.BLOCKED)) {
+            assertTrue(System.nanoTime() < deadline, "Callers did not block");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
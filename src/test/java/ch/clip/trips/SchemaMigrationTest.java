@@ -0,0 +1,45 @@
+package ch.clip.trips;
+
+import ch.clip.trips.repo.BusinessTripRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The Flyway migrations used by the prod profile must produce the schema the entities
+ * expect; Hibernate only validates it.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@ActiveProfiles("test")
+class SchemaMigrationTest {
+
+    @Autowired
+    private BusinessTripRepository businessTripRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void whenMigrated_thenSchemaValidatesAndKeepsPooledSequences() {
+        assertEquals(10, businessTripRepository.count());
+
+        List<Long> increments = jdbcTemplate.queryForList(
+                "select increment from information_schema.sequences"
+                        + " where sequence_name in ('BUSINESS_TRIP_SEQ', 'MEETING_SEQ')", Long.class);
+        assertEquals(List.of(50L, 50L), increments);
+
+        List<String> indexes = jdbcTemplate.queryForList(
+                "select index_name from information_schema.indexes where table_name = 'MEETING'", String.class);
+        assertTrue(indexes.contains("IDX_MEETING_BUSINESS_TRIP"), indexes::toString);
+    }
+}
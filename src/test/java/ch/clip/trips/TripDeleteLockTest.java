@@ -0,0 +1,57 @@
+package ch.clip.trips;
+
+import ch.clip.trips.model.BusinessTrip;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.repo.MeetingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Deletes lock the trips before removing their meetings, so a meeting write waits instead of
+ * inserting a row the trip delete then trips over. Not transactional: the two transactions
+ * have to run on their own connections.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TripDeleteLockTest {
+
+    @Autowired
+    private BusinessTripRepository businessTripRepository;
+
+    @Autowired
+    private MeetingRepository meetingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void whenTripIsLockedForDelete_thenMeetingWriteWaitsAndFindsItGone() throws Exception {
+        Long tripId = businessTripRepository.save(new BusinessTrip("Locked Trip", null,
+                LocalDateTime.of(2024, 2, 1, 9, 0), LocalDateTime.of(2024, 2, 2, 9, 0))).getId();
+
+        CompletableFuture<Integer> meetingWrite = transactionTemplate.execute(status -> {
+            assertEquals(List.of(tripId), businessTripRepository.lockIdsByIdIn(List.of(tripId)));
+            // The same lock saveMeeting takes before inserting
+            CompletableFuture<Integer> write = CompletableFuture.supplyAsync(
+                    () -> transactionTemplate.execute(s -> businessTripRepository.incrementVersion(tripId)));
+            assertThrows(TimeoutException.class, () -> write.get(200, TimeUnit.MILLISECONDS));
+            meetingRepository.deleteByTripIdIn(List.of(tripId));
+            businessTripRepository.deleteByIdIn(List.of(tripId));
+            return write;
+        });
+
+        assertEquals(0, meetingWrite.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,77 @@
+package ch.clip.trips;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.TripImportReport;
+import ch.clip.trips.repo.BusinessTripRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Date-range queries served from the in-memory interval tree must return the same trips,
+ * in the same order, as the database query.
+ */
+@SpringBootTest(properties = "trips.interval-index.enabled=true")
+@AutoConfigureMockMvc
+@Transactional
+@ActiveProfiles("test")
+class TripIntervalIndexTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BusinessTripRepository businessTripRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void whenGetTripsInDateRange_thenIntervalIndexMatchesDatabase() throws Exception {
+        Random random = new Random(7);
+        List<BusinessTripDto> trips = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime start = LocalDateTime.of(2031, 1, 1, 8, 0).plusHours(random.nextInt(24 * 365));
+            trips.add(new BusinessTripDto(null, "Range Trip " + i, null, start, start.plusHours(1 + random.nextInt(24 * 10)), null));
+        }
+        String body = mockMvc.perform(post("/v1/trips:batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(trips)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(300, objectMapper.readValue(body, TripImportReport.class).created());
+
+        for (int i = 0; i < 20; i++) {
+            LocalDateTime from = LocalDateTime.of(2030, 12, 1, 0, 0).plusHours(random.nextInt(24 * 400));
+            LocalDateTime to = from.plusHours(random.nextInt(24 * 30));
+            String response = mockMvc.perform(get("/v1/trips")
+                            .param("from", from.toString())
+                            .param("to", to.toString())
+                            .param("view", "summary"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            List<Long> fromIndex = Arrays.stream(objectMapper.readValue(response, BusinessTripDto[].class))
+                    .map(BusinessTripDto::id).toList();
+            List<Long> fromDatabase = businessTripRepository.findOverlapping(from, to).stream()
+                    .map(trip -> trip.id()).toList();
+            assertEquals(fromDatabase, fromIndex, "trips overlapping " + from + " - " + to);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package ch.clip.trips;
+
+import ch.clip.trips.dto.BusinessTripDto;
+import ch.clip.trips.dto.TripLookupReport;
+import ch.clip.trips.dto.TripMeetingsReport;
+import ch.clip.trips.ex.InvalidLookupException;
+import ch.clip.trips.lookup.TripLookup;
+import ch.clip.trips.metrics.QueryCounter;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.repo.MeetingRepository;
+import ch.clip.trips.repo.TripRow;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Lookups spanning several chunks, which are read in parallel transactions. Not transactional,
+ * so the chunk threads see the seeded trips.
+ */
+@SpringBootTest(properties = {
+        "trips.lookup.chunk-size=3",
+        "trips.lookup.parallelism=2",
+        "trips.lookup.max-ids=50"
+})
+@ActiveProfiles("test")
+class TripLookupTest {
+
+    @Autowired
+    private TripLookup tripLookup;
+
+    @Autowired
+    private BusinessTripRepository businessTripRepository;
+
+    @Autowired
+    private MeetingRepository meetingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void whenLookupSpansChunks_thenTripsMatchSingleTripReadsInRequestOrder() {
+        List<Long> ids = businessTripRepository.findAllRows().stream().map(TripRow::id).toList().reversed();
+        List<Long> requested = new ArrayList<>(ids);
+        requested.add(2, -1L);
+        requested.add(ids.get(0));
+
+        TripLookupReport report = tripLookup.trips(requested);
+
+        assertEquals(ids, report.trips().stream().map(BusinessTripDto::id).toList());
+        for (BusinessTripDto trip : report.trips()) {
+            assertEquals(meetingRepository.findDtosByTripId(trip.id()), trip.meetings());
+        }
+        assertEquals(List.of(-1L), report.missing());
+    }
+
+    @Test
+    void whenMeetingsSpanChunks_thenGroupedByTrip() {
+        List<Long> ids = businessTripRepository.findAllRows().stream().map(TripRow::id).toList();
+        List<Long> requested = new ArrayList<>(ids);
+        requested.add(0, -2L);
+
+        TripMeetingsReport report = tripLookup.meetings(requested);
+
+        assertEquals(ids, List.copyOf(report.meetings().keySet()));
+        for (Long id : ids) {
+            assertEquals(meetingRepository.findDtosByTripId(id), report.meetings().get(id));
+        }
+        assertEquals(meetingRepository.count(), report.meetings().values().stream().mapToLong(List::size).sum());
+        assertEquals(List.of(-2L), report.missing());
+    }
+
+    @Test
+    void whenLookupSpansChunks_thenChunkStatementsAreCountedForTheCaller() {
+        List<Long> ids = businessTripRepository.findAllRows().stream().map(TripRow::id).toList();
+        int chunks = (ids.size() + 2) / 3;
+        assertTrue(chunks > 1, "lookup spans several chunks");
+
+        QueryCounter.reset();
+        tripLookup.trips(ids);
+
+        // A trip query and a meeting query per chunk, each run on its own virtual thread
+        assertEquals(2L * chunks, QueryCounter.current());
+    }
+
+    @Test
+    void whenJdbcTemplateRunsStatements_thenCounted() {
+        QueryCounter.reset();
+        jdbcTemplate.queryForObject("select count(*) from business_trip", Long.class);
+        jdbcTemplate.queryForObject("select count(*) from meeting where business_trip_id = ?", Long.class, -1L);
+
+        assertEquals(2, QueryCounter.current());
+    }
+
+    @Test
+    void whenTooManyIds_thenRejected() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 51; id++) {
+            ids.add(id);
+        }
+        assertThrows(InvalidLookupException.class, () -> tripLookup.trips(ids));
+    }
+}
@@ -0,0 +1,60 @@
+package ch.clip.trips;
+
+import ch.clip.trips.archive.TripArchiver;
+import ch.clip.trips.repo.ArchivedTripRepository;
+import ch.clip.trips.repo.BusinessTripRepository;
+import ch.clip.trips.seed.TripSeeder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Restarts of a persistent database, simulated by running the seeder again. Uses its own
+ * context, since archiving announces the seed trips as deleted to the shared caches and indexes.
+ */
+@SpringBootTest(properties = "trips.seed.mode=sync")
+@Transactional
+@ActiveProfiles("test")
+class TripSeederTest {
+
+    @Autowired
+    private TripSeeder tripSeeder;
+
+    @Autowired
+    private TripArchiver tripArchiver;
+
+    @Autowired
+    private BusinessTripRepository businessTripRepository;
+
+    @Autowired
+    private ArchivedTripRepository archivedTripRepository;
+
+    @Test
+    void whenTripsExist_thenSeedingIsSkipped() {
+        long trips = businessTripRepository.count();
+        assertTrue(trips > 0, "seeded at startup");
+
+        tripSeeder.run();
+
+        assertEquals(trips, businessTripRepository.count());
+    }
+
+    @Test
+    void whenAllTripsAreArchived_thenSeedingIsSkipped() {
+        long trips = businessTripRepository.count();
+        assertEquals(trips, tripArchiver.archiveEndedBefore(LocalDateTime.of(9999, 1, 1, 0, 0)));
+        assertEquals(0, businessTripRepository.count());
+
+        tripSeeder.run();
+
+        assertEquals(0, businessTripRepository.count());
+        assertEquals(trips, archivedTripRepository.count());
+    }
+}
@@ -0,0 +1,92 @@
+package ch.clip.trips;
+
+import ch.clip.trips.model.BusinessTrip;
+import ch.clip.trips.model.Meeting;
+import ch.clip.trips.repo.BusinessTripRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The NDJSON stream reads in its own transaction after the request thread is released. Not
+ * transactional, so the fixture trip is committed and visible to it; it is removed afterwards.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TripStreamTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BusinessTripRepository businessTripRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private BusinessTrip streamedTrip;
+
+    @BeforeEach
+    void setUp() {
+        BusinessTrip trip = new BusinessTrip("Streamed Trip", "Read through the cursor",
+                LocalDateTime.of(2024, 3, 4, 9, 0), LocalDateTime.of(2024, 3, 6, 18, 0));
+        List<Meeting> meetings = new ArrayList<>();
+        meetings.add(new Meeting("Streamed Meeting", "Listed with its trip", trip));
+        trip.setMeetings(meetings);
+        streamedTrip = businessTripRepository.save(trip);
+    }
+
+    @AfterEach
+    void tearDown() {
+        businessTripRepository.deleteById(streamedTrip.getId());
+    }
+
+    @Test
+    void whenStreamTrips_thenOneJsonObjectPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v1/trips").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertTrue(body.endsWith("\n"), "every line is terminated");
+        String[] lines = body.split("\n");
+        assertEquals(businessTripRepository.count(), lines.length);
+        JsonNode streamed = null;
+        for (String line : lines) {
+            JsonNode trip = objectMapper.readTree(line);
+            assertTrue(trip.isObject(), line);
+            if (streamedTrip.getId().equals(trip.get("id").asLong())) {
+                streamed = trip;
+            }
+        }
+        assertTrue(streamed != null, "fixture trip is streamed");
+        assertEquals("Streamed Trip", streamed.get("title").asText());
+        assertEquals("Streamed Meeting", streamed.get("meetings").get(0).get("title").asText());
+    }
+}